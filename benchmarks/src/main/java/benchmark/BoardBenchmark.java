@@ -0,0 +1,41 @@
+package benchmark;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copying and hashing boards
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    private ChessBoard board;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        board = Positions.board(Positions.MIDDLEGAME);
+    }
+
+    @Benchmark
+    public ChessBoard cloneBoard() {
+        return board.clone();
+    }
+
+    @Benchmark
+    public int hashCodeBoard() {
+        return board.hashCode();
+    }
+
+    @Benchmark
+    public int hashCodeNewGame() {
+        return new ChessGame().hashCode();
+    }
+}
@@ -0,0 +1,102 @@
+package benchmark;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Move generation and game status checks, the work the server does for
+ * every move it receives
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveGenerationBenchmark {
+
+    private static final ChessPosition WHITE_QUEEN = ChessPosition.of(2, 5);
+    private static final ChessPosition WHITE_KNIGHT = ChessPosition.of(3, 6);
+
+    private static final ChessMove[] KNIGHT_SHUFFLE = {
+            new ChessMove(ChessPosition.of(1, 7), ChessPosition.of(3, 6), null),
+            new ChessMove(ChessPosition.of(8, 7), ChessPosition.of(6, 6), null),
+            new ChessMove(ChessPosition.of(3, 6), ChessPosition.of(1, 7), null),
+            new ChessMove(ChessPosition.of(6, 6), ChessPosition.of(8, 7), null)
+    };
+
+    private ChessGame start;
+    private ChessGame middlegame;
+    private ChessGame checkmate;
+    private ChessBoard middlegameBoard;
+    private ChessBoard checkmateBoard;
+    private ChessPiece queen;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        start = new ChessGame();
+        middlegame = Positions.game(Positions.MIDDLEGAME, ChessGame.TeamColor.WHITE);
+        checkmate = Positions.game(Positions.CHECKMATE, ChessGame.TeamColor.WHITE);
+        middlegameBoard = middlegame.getBoard();
+        checkmateBoard = checkmate.getBoard();
+        queen = middlegameBoard.getPiece(WHITE_QUEEN);
+    }
+
+    @Benchmark
+    public Collection<ChessMove> pieceMovesQueen() {
+        return queen.pieceMoves(middlegameBoard, WHITE_QUEEN);
+    }
+
+    @Benchmark
+    public Collection<ChessMove> validMovesKnight() {
+        return middlegame.validMoves(WHITE_KNIGHT);
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return middlegame.isInCheck(ChessGame.TeamColor.WHITE);
+    }
+
+    /**
+     * Clearing the cached status with setBoard, which the checkmate
+     * benchmarks do first so they time the search rather than a cache hit.
+     * Take this off their scores.
+     */
+    @Benchmark
+    public ChessGame clearStatus() {
+        middlegame.setBoard(middlegameBoard);
+        return middlegame;
+    }
+
+    @Benchmark
+    public boolean isInCheckmateMiddlegame() {
+        middlegame.setBoard(middlegameBoard);
+        return middlegame.isInCheckmate(ChessGame.TeamColor.WHITE);
+    }
+
+    @Benchmark
+    public boolean isInCheckmateMated() {
+        checkmate.setBoard(checkmateBoard);
+        return checkmate.isInCheckmate(ChessGame.TeamColor.WHITE);
+    }
+
+    /**
+     * Four validated moves that bring both knights out and back, so the
+     * position is the same after every call
+     */
+    @Benchmark
+    public ChessGame makeMoveKnightShuffle() throws InvalidMoveException {
+        for (ChessMove move : KNIGHT_SHUFFLE) {
+            start.makeMove(move);
+        }
+        return start;
+    }
+}
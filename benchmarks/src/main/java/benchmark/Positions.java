@@ -0,0 +1,82 @@
+package benchmark;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+/**
+ * Positions shared by the benchmarks, written as board diagrams with
+ * uppercase for white and lowercase for black
+ */
+public final class Positions {
+
+    public static final String MIDDLEGAME = """
+            |r| | | | |r|k| |
+            | |p|p| |q|p|p|p|
+            |p| |n|p| |n| | |
+            | | |b| |p| |B| |
+            | | |B| |P| |b| |
+            |P| |N|P| |N| | |
+            | |P|P| |Q|P|P|P|
+            |R| | | | |R|K| |
+            """;
+
+    // Fool's mate: white has just been checkmated
+    public static final String CHECKMATE = """
+            |r|n|b| |k|b|n|r|
+            |p|p|p|p| |p|p|p|
+            | | | | | | | | |
+            | | | | |p| | | |
+            | | | | | | |P|q|
+            | | | | | |P| | |
+            |P|P|P|P|P| | |P|
+            |R|N|B|Q|K|B|N|R|
+            """;
+
+    private Positions() {
+    }
+
+    public static ChessGame game(String boardText, ChessGame.TeamColor turn) {
+        ChessGame game = new ChessGame();
+        game.setBoard(board(boardText));
+        game.setTeamTurn(turn);
+        return game;
+    }
+
+    public static ChessBoard board(String boardText) {
+        ChessBoard board = new ChessBoard();
+        int row = 8;
+        int column = 1;
+        for (char c : boardText.toCharArray()) {
+            switch (c) {
+                case '\n' -> {
+                    column = 1;
+                    row--;
+                }
+                case ' ' -> column++;
+                case '|' -> {
+                }
+                default -> {
+                    ChessGame.TeamColor color = Character.isLowerCase(c)
+                            ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+                    board.addPiece(ChessPosition.of(row, column), new ChessPiece(color, type(c)));
+                    column++;
+                }
+            }
+        }
+        return board;
+    }
+
+    private static ChessPiece.PieceType type(char c) {
+        return switch (Character.toLowerCase(c)) {
+            case 'p' -> ChessPiece.PieceType.PAWN;
+            case 'n' -> ChessPiece.PieceType.KNIGHT;
+            case 'b' -> ChessPiece.PieceType.BISHOP;
+            case 'r' -> ChessPiece.PieceType.ROOK;
+            case 'q' -> ChessPiece.PieceType.QUEEN;
+            case 'k' -> ChessPiece.PieceType.KING;
+            default -> throw new IllegalArgumentException("Unknown piece: " + c);
+        };
+    }
+}
@@ -0,0 +1,99 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import dataaccess.DataAccessException;
+import dataaccess.DatabaseManager;
+import dataaccess.MySqlAuthDAO;
+import dataaccess.MySqlGameDAO;
+import dataaccess.MySqlUserDAO;
+import model.AuthData;
+import model.GameData;
+import model.UserData;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the DAO reads every request and move makes, through the
+ * server's own connection pool and statement registry, with the driver's
+ * prepared statement cache off and on. The registry only warms the cache, so
+ * it is off whenever the cache is. Needs a running MySQL server and
+ * db.properties on the classpath, as the server does; the benchmark uses its
+ * own database so it never touches the server's games.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryLatencyBenchmark {
+
+    private static final String DATABASE = "chess_benchmark";
+    private static final String USERNAME = "benchmark-user";
+    private static final String TOKEN = "benchmark-token";
+    private static final int GAME_ID = 1;
+
+    // Knights out and back, so reading the game replays a few logged moves
+    private static final ChessMove[] MOVES = {
+            new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null),
+            new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null),
+            new ChessMove(new ChessPosition(3, 6), new ChessPosition(1, 7), null),
+            new ChessMove(new ChessPosition(6, 6), new ChessPosition(8, 7), null)
+    };
+
+    @Param({"false", "true"})
+    public boolean cachePrepStmts;
+
+    private MySqlUserDAO userDAO;
+    private MySqlAuthDAO authDAO;
+    private MySqlGameDAO gameDAO;
+
+    @Setup(Level.Trial)
+    public void setUp() throws DataAccessException, InvalidMoveException {
+        DatabaseManager.reloadProperties(Map.of(
+                "db.name", DATABASE,
+                "db.cachePrepStmts", Boolean.toString(cachePrepStmts),
+                "db.useServerPrepStmts", Boolean.toString(cachePrepStmts)));
+
+        userDAO = new MySqlUserDAO();
+        authDAO = new MySqlAuthDAO();
+        gameDAO = new MySqlGameDAO();
+        clear();
+
+        userDAO.createUser(new UserData(USERNAME, "password", "benchmark@example.com"));
+        authDAO.createAuth(new AuthData(TOKEN, USERNAME));
+        ChessGame game = new ChessGame();
+        GameData gameData = new GameData(GAME_ID, USERNAME, null, "benchmark", game);
+        gameDAO.createGame(gameData);
+        for (ChessMove move : MOVES) {
+            game.makeMove(move);
+            gameDAO.recordMove(gameData, move);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws DataAccessException {
+        clear();
+    }
+
+    @Benchmark
+    public AuthData getAuth() throws DataAccessException {
+        return authDAO.getAuth(TOKEN);
+    }
+
+    @Benchmark
+    public GameData getGame() throws DataAccessException {
+        return gameDAO.getGame(GAME_ID);
+    }
+
+    private void clear() throws DataAccessException {
+        gameDAO.clear();
+        authDAO.clear();
+        userDAO.clear();
+    }
+}
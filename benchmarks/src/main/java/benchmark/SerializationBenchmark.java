@@ -0,0 +1,64 @@
+package benchmark;
+
+import chess.ChessGame;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+import serialization.Serializer;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turning games into JSON or the binary encoding and back, as the server
+ * does when it stores a game and sends it to every player and observer
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private final Gson gson = Serializer.gson();
+    private ChessGame game;
+    private String json;
+    private ByteBuffer buffer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        game = Positions.game(Positions.MIDDLEGAME, ChessGame.TeamColor.WHITE);
+        json = gson.toJson(game);
+        buffer = ByteBuffer.allocate(ChessGame.MAX_ENCODED_SIZE);
+    }
+
+    @Benchmark
+    public String toJson() {
+        return gson.toJson(game);
+    }
+
+    @Benchmark
+    public ChessGame fromJson() {
+        return gson.fromJson(json, ChessGame.class);
+    }
+
+    @Benchmark
+    public ChessGame roundTrip() {
+        return gson.fromJson(gson.toJson(game), ChessGame.class);
+    }
+
+    @Benchmark
+    public ByteBuffer encode() {
+        buffer.clear();
+        game.encode(buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public ChessGame encodeDecode() {
+        buffer.clear();
+        game.encode(buffer);
+        buffer.flip();
+        return ChessGame.decode(buffer);
+    }
+}
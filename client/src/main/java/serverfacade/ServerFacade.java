@@ -2,9 +2,10 @@ package serverfacade;
 
 import chess.ChessGame;
 import chess.ChessMove;
-import com.google.gson.Gson;
 import jakarta.websocket.DeploymentException;
+import model.GameQuery;
 import result.*;
+import serialization.Serializer;
 import websocket.ServerMessageObserver;
 import websocket.WebsocketCommunicator;
 import websocket.commands.MakeMoveCommand;
@@ -14,6 +15,9 @@ import java.io.*;
 import java.net.HttpURLConnection;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class ServerFacade {
@@ -21,6 +25,17 @@ public class ServerFacade {
     private ServerMessageObserver observer;
     private WebsocketCommunicator ws = null;
 
+    // Game list pages fetched so far and their ETags, by request path, reused for as long as the server
+    // says they haven't changed. Capped so a long session walking many pages doesn't keep them all.
+    private static final int CACHED_LIST_PAGES = 64;
+    private record CachedList(String eTag, ListGamesResult result) {}
+    private final Map<String, CachedList> cachedLists = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedList> eldest) {
+            return size() > CACHED_LIST_PAGES;
+        }
+    };
+
     private record CreateGameBody(String gameName) {}
 
     public ServerFacade(int port, ServerMessageObserver observer) {
@@ -29,8 +44,14 @@ public class ServerFacade {
     }
 
     private <T> T makeRequest(String method, String endpoint, Object requestBody, String authToken, Class<T> responseClass) throws Exception {
+        HttpURLConnection con = sendRequest(method, endpoint, requestBody, authToken, null);
+        return readResponse(con, responseClass);
+    }
+
+    private HttpURLConnection sendRequest(String method, String endpoint, Object requestBody, String authToken,
+                                          String ifNoneMatch) throws Exception {
         var url = new URL(serverURL + endpoint);
-        var gson = new Gson();
+        var gson = Serializer.gson();
         HttpURLConnection con = (HttpURLConnection) url.openConnection();
         con.setRequestMethod(method);
         con.setRequestProperty("Content-Type", "application/json");
@@ -39,6 +60,10 @@ public class ServerFacade {
             con.setRequestProperty("Authorization", authToken);
         }
 
+        if (ifNoneMatch != null) {
+            con.setRequestProperty("If-None-Match", ifNoneMatch);
+        }
+
         if (requestBody != null) {
             con.setDoOutput(true);
 
@@ -53,7 +78,11 @@ public class ServerFacade {
         }
 
         con.connect();
+        return con;
+    }
 
+    private <T> T readResponse(HttpURLConnection con, Class<T> responseClass) throws Exception {
+        var gson = Serializer.gson();
         int responseCode = con.getResponseCode();
         if (responseCode != 200) {
             InputStream err = con.getErrorStream();
@@ -93,7 +122,42 @@ public class ServerFacade {
     }
 
     public ListGamesResult listGames(String authToken) throws Exception {
-        return makeRequest("GET", "/game", null, authToken, ListGamesResult.class);
+        return listGames(authToken, GameQuery.firstPage());
+    }
+
+    /**
+     * Lists one page of games. Pass the result's next value to
+     * query.startingAfter to get the page after it. Asking for a page already
+     * fetched reuses it if the server says it hasn't changed.
+     */
+    public ListGamesResult listGames(String authToken, GameQuery query) throws Exception {
+        var endpoint = new StringBuilder("/game?after=").append(query.after()).append("&limit=").append(query.limit());
+        if (query.openSeats()) {
+            endpoint.append("&open=true");
+        }
+        if (query.player() != null) {
+            endpoint.append("&player=").append(URLEncoder.encode(query.player(), StandardCharsets.UTF_8));
+        }
+        if (query.finished() != null) {
+            endpoint.append("&status=").append(query.finished() ? "finished" : "active");
+        }
+        String path = endpoint.toString();
+
+        CachedList cached = cachedLists.get(path);
+        HttpURLConnection con = sendRequest("GET", path, null, authToken, (cached != null) ? cached.eTag() : null);
+        if (cached != null && con.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            return cached.result();
+        }
+
+        ListGamesResult result = readResponse(con, ListGamesResult.class);
+        String eTag = con.getHeaderField("ETag");
+        if (eTag != null) {
+            cachedLists.put(path, new CachedList(eTag, result));
+        }
+        else {
+            cachedLists.remove(path);
+        }
+        return result;
     }
 
     public JoinGameResult joinGame(String authToken, int gameID, ChessGame.TeamColor playerColor) throws Exception {
@@ -106,22 +170,22 @@ public class ServerFacade {
         String wsURL = serverURL.replace("http", "ws");
         this.ws = new WebsocketCommunicator(wsURL, observer);
         UserGameCommand cmd = new UserGameCommand(UserGameCommand.CommandType.CONNECT, authToken, gameID);
-        ws.send(new Gson().toJson(cmd));
+        ws.send(Serializer.toJson(cmd));
     }
 
     public void makeMove(String authToken, int gameID, ChessMove move) throws IOException {
         MakeMoveCommand cmd = new MakeMoveCommand(authToken, gameID, move);
-        ws.send(new Gson().toJson(cmd));
+        ws.send(Serializer.toJson(cmd));
     }
 
     public void leaveGame(String authToken, int gameID) throws IOException {
         UserGameCommand cmd = new UserGameCommand(UserGameCommand.CommandType.LEAVE, authToken, gameID);
-        ws.send(new Gson().toJson(cmd));
+        ws.send(Serializer.toJson(cmd));
     }
 
     public void resignGame(String authToken, int gameID) throws IOException {
         UserGameCommand cmd = new UserGameCommand(UserGameCommand.CommandType.RESIGN, authToken, gameID);
-        ws.send(new Gson().toJson(cmd));
+        ws.send(Serializer.toJson(cmd));
     }
 
     public void setObserver(ServerMessageObserver observer) {
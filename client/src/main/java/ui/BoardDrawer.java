@@ -47,7 +47,7 @@ public class BoardDrawer {
 
             for (int k = 0; k < column.size(); k++) {
                 int col = (playerColor == ChessGame.TeamColor.BLACK) ? (8 - k) : (k + 1);
-                ChessPosition position = new ChessPosition(row.get(i), col);
+                ChessPosition position = ChessPosition.of(row.get(i), col);
                 ChessPiece piece = currentGame.getBoard().getPiece(position);
 
                 // Determine background color
@@ -129,7 +129,7 @@ public class GameplayClient implements ServerMessageObserver {
 
         int row = rowLetter - '0';
         int col = colNum - 'a' + 1;
-        ChessPosition startPosition = new ChessPosition(row, col);
+        ChessPosition startPosition = ChessPosition.of(row, col);
 
         colNum = end.charAt(0);
         rowLetter = end.charAt(1);
@@ -145,7 +145,7 @@ public class GameplayClient implements ServerMessageObserver {
 
         row = rowLetter - '0';
         col = colNum - 'a' + 1;
-        ChessPosition endPosition = new ChessPosition(row, col);
+        ChessPosition endPosition = ChessPosition.of(row, col);
 
         ChessPiece.PieceType promotionPiece = null;
         ChessPiece piece = currentGame.getBoard().getPiece(startPosition);
@@ -203,7 +203,7 @@ public class GameplayClient implements ServerMessageObserver {
 
         int row = rowLetter - '0';
         int col = colNum - 'a' + 1;
-        ChessPosition position = new ChessPosition(row, col);
+        ChessPosition position = ChessPosition.of(row, col);
         var validMoves = currentGame.validMoves(position);
         BoardDrawer.drawWithHighlights(currentGame, playerColor, validMoves, position);
     }
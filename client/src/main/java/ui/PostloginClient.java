@@ -2,7 +2,8 @@ package ui;
 
 import serverfacade.ServerFacade;
 import chess.ChessGame;
-import model.GameData;
+import model.GameQuery;
+import model.GameSummary;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -14,7 +15,7 @@ public class PostloginClient {
 
     private final ServerFacade serverFacade;
     private String auth;
-    private Collection<GameData> lastGamesList = new ArrayList<>();
+    private Collection<GameSummary> lastGamesList = new ArrayList<>();
 
     public PostloginClient(ServerFacade serverFacade) {
         this.serverFacade = serverFacade;
@@ -88,7 +89,7 @@ public class PostloginClient {
                 if (lastGamesList == null || lastGamesList.isEmpty()) {
                     return "Please check available games first by running 'list.'";
                 }
-                GameData game = new ArrayList<>(lastGamesList).get(gameIndex);
+                GameSummary game = new ArrayList<>(lastGamesList).get(gameIndex);
                 int gameID = game.gameID();
 
                 GameplayClient gameplayClient = new GameplayClient(serverFacade, auth, gameID, null);
@@ -127,14 +128,24 @@ public class PostloginClient {
 
     public String listCommand() {
         try {
-            var result = serverFacade.listGames(auth);
-            lastGamesList = result.games();
+            // The server lists games a page at a time, so keep going until there is no next page
+            List<GameSummary> games = new ArrayList<>();
+            GameQuery query = GameQuery.firstPage();
+            while (true) {
+                var result = serverFacade.listGames(auth, query);
+                games.addAll(result.games());
+                if (result.next() == null) {
+                    break;
+                }
+                query = query.startingAfter(result.next());
+            }
+            lastGamesList = games;
 
             StringBuilder sb = new StringBuilder();
 
             int counter = 1;
 
-            for (GameData game : lastGamesList) {
+            for (GameSummary game : lastGamesList) {
                 String whitePlayerName = game.whiteUsername();
                 String blackPlayerName = game.blackUsername();
 
@@ -181,7 +192,7 @@ public class PostloginClient {
                 return "Please check available games first by running 'list.'";
             }
 
-            GameData game = new ArrayList<>(lastGamesList).get(gameIndex);
+            GameSummary game = new ArrayList<>(lastGamesList).get(gameIndex);
 
             int gameID = game.gameID();
             String colorInput = tokens.get(2).toUpperCase();
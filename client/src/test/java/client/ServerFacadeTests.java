@@ -2,6 +2,7 @@ package client;
 
 import serverfacade.ServerFacade;
 import chess.ChessGame;
+import model.GameQuery;
 import org.junit.jupiter.api.*;
 import server.Server;
 
@@ -111,6 +112,51 @@ public class ServerFacadeTests {
         Assertions.assertTrue(result.games().size() == 1);
     }
 
+    @Test
+    public void positivePagedListGamesTest() throws Exception {
+        facade.register("username", "password", "email@email.com");
+        var session = facade.login("username", "password");
+        facade.createGame(session.authToken(), "First Game");
+        facade.createGame(session.authToken(), "Second Game");
+        var query = GameQuery.firstPage().withLimit(1);
+        var firstPage = facade.listGames(session.authToken(), query);
+        var secondPage = facade.listGames(session.authToken(), query.startingAfter(firstPage.next()));
+
+        Assertions.assertEquals(1, firstPage.games().size());
+        Assertions.assertEquals(1, secondPage.games().size());
+        Assertions.assertNotEquals(firstPage.games().iterator().next().gameID(),
+                secondPage.games().iterator().next().gameID());
+    }
+
+    @Test
+    public void cachedListGamesTest() throws Exception {
+        facade.register("username", "password", "email@email.com");
+        var session = facade.login("username", "password");
+        facade.createGame(session.authToken(), "First Game");
+        var first = facade.listGames(session.authToken());
+        var unchanged = facade.listGames(session.authToken());
+        facade.createGame(session.authToken(), "Second Game");
+        var changed = facade.listGames(session.authToken());
+
+        Assertions.assertSame(first, unchanged);
+        Assertions.assertEquals(2, changed.games().size());
+    }
+
+    @Test
+    public void cachedPagesListGamesTest() throws Exception {
+        facade.register("username", "password", "email@email.com");
+        var session = facade.login("username", "password");
+        facade.createGame(session.authToken(), "First Game");
+        facade.createGame(session.authToken(), "Second Game");
+        var query = GameQuery.firstPage().withLimit(1);
+        var firstPage = facade.listGames(session.authToken(), query);
+        var secondPage = facade.listGames(session.authToken(), query.startingAfter(firstPage.next()));
+
+        // Fetching the second page doesn't cost the first page its cached copy
+        Assertions.assertSame(firstPage, facade.listGames(session.authToken(), query));
+        Assertions.assertSame(secondPage, facade.listGames(session.authToken(), query.startingAfter(firstPage.next())));
+    }
+
     @Test
     public void negativeListGameTest() {
         Assertions.assertThrows(Exception.class, () -> {
@@ -0,0 +1,135 @@
+package dataaccess;
+
+import model.AuthData;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps recently used auth tokens in memory in front of another AuthDAO,
+ * since nearly every request looks up one of a small set of live tokens.
+ * <p>
+ * The cache holds at most maxSize tokens, dropping the least recently used
+ * when it is full, and an entry is only trusted for the time to live after it
+ * was loaded. Deleting a token or clearing the DAO removes it from the cache
+ * right away. Tokens that aren't found are not cached, so a token created
+ * elsewhere is seen on its next lookup.
+ */
+public class CachingAuthDAO implements AuthDAO {
+
+    /**
+     * @param hits      lookups answered from the cache
+     * @param misses    lookups passed on to the wrapped DAO
+     * @param evictions entries dropped to make room or because they expired
+     * @param size      tokens cached right now
+     */
+    public record Metrics(long hits, long misses, long evictions, int size) {}
+
+    private record Entry(AuthData authData, long expiresAt) {}
+
+    private final AuthDAO authDAO;
+    private final int maxSize;
+    private final long timeToLiveNanos;
+    private final LongSupplier clock;
+
+    private final LinkedHashMap<String, Entry> cache;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    // Bumped on every delete and clear, so a lookup that raced with one doesn't cache a stale token
+    private long invalidations;
+
+    public CachingAuthDAO(AuthDAO authDAO, int maxSize, Duration timeToLive) {
+        this(authDAO, maxSize, timeToLive, System::nanoTime);
+    }
+
+    CachingAuthDAO(AuthDAO authDAO, int maxSize, Duration timeToLive, LongSupplier clock) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1");
+        }
+        this.authDAO = authDAO;
+        this.maxSize = maxSize;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.clock = clock;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > CachingAuthDAO.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public void createAuth(AuthData authData) throws DataAccessException {
+        authDAO.createAuth(authData);
+        synchronized (this) {
+            cache.put(authData.authToken(), new Entry(authData, clock.getAsLong() + timeToLiveNanos));
+        }
+    }
+
+    @Override
+    public AuthData getAuth(String authToken) throws DataAccessException {
+        long seenInvalidations;
+        synchronized (this) {
+            Entry entry = cache.get(authToken);
+            if (entry != null) {
+                if (clock.getAsLong() - entry.expiresAt() < 0) {
+                    hits++;
+                    return entry.authData();
+                }
+                cache.remove(authToken);
+                evictions++;
+            }
+            misses++;
+            seenInvalidations = invalidations;
+        }
+
+        AuthData authData = authDAO.getAuth(authToken);
+        if (authData != null) {
+            synchronized (this) {
+                if (invalidations == seenInvalidations) {
+                    cache.put(authToken, new Entry(authData, clock.getAsLong() + timeToLiveNanos));
+                }
+            }
+        }
+        return authData;
+    }
+
+    @Override
+    public void deleteAuth(String authToken) throws DataAccessException {
+        try {
+            authDAO.deleteAuth(authToken);
+        } finally {
+            synchronized (this) {
+                cache.remove(authToken);
+                invalidations++;
+            }
+        }
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        try {
+            authDAO.clear();
+        } finally {
+            synchronized (this) {
+                cache.clear();
+                invalidations++;
+            }
+        }
+    }
+
+    /**
+     * @return the cache's counters as they are right now
+     */
+    public synchronized Metrics metrics() {
+        return new Metrics(hits, misses, evictions, cache.size());
+    }
+}
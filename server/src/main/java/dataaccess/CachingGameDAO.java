@@ -0,0 +1,282 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import model.GameData;
+import model.GameQuery;
+import model.GameSummary;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps the games being played in memory in front of another GameDAO, so a
+ * move doesn't have to read and parse the game back out of the database.
+ * <p>
+ * Each cached game is held in its compact binary form and decoded into a new
+ * ChessGame on every getGame, so callers can change what they get back
+ * without touching the cache. Updates are written through to the wrapped DAO
+ * before the cache changes, and an update that leaves the game exactly as it
+ * was cached is skipped. The cache holds at most maxSize games, dropping the
+ * least recently used when it is full, and a game nobody has looked at for
+ * the idle timeout is dropped on its next lookup.
+ * <p>
+ * Game lists and summaries are always read from the wrapped DAO.
+ */
+public class CachingGameDAO implements GameDAO {
+
+    /**
+     * @param hits          lookups answered from the cache
+     * @param misses        lookups passed on to the wrapped DAO
+     * @param evictions     games dropped to make room or because they sat idle
+     * @param writes        updates written through to the wrapped DAO
+     * @param skippedWrites updates skipped because nothing had changed
+     * @param size          games cached right now
+     */
+    public record Metrics(long hits, long misses, long evictions, long writes, long skippedWrites, int size) {}
+
+    private static final class Entry {
+        final String whiteUsername;
+        final String blackUsername;
+        final String gameName;
+        final byte[] gameState;
+        long lastUsed;
+
+        Entry(GameData gameData, byte[] gameState, long lastUsed) {
+            this.whiteUsername = gameData.whiteUsername();
+            this.blackUsername = gameData.blackUsername();
+            this.gameName = gameData.gameName();
+            this.gameState = gameState;
+            this.lastUsed = lastUsed;
+        }
+
+        boolean matches(GameData gameData, byte[] gameState) {
+            return Objects.equals(whiteUsername, gameData.whiteUsername())
+                    && Objects.equals(blackUsername, gameData.blackUsername())
+                    && Objects.equals(gameName, gameData.gameName())
+                    && Arrays.equals(this.gameState, gameState);
+        }
+
+        GameData toGameData(int gameID) {
+            return new GameData(gameID, whiteUsername, blackUsername, gameName,
+                    ChessGame.decode(ByteBuffer.wrap(gameState)));
+        }
+    }
+
+    private final GameDAO gameDAO;
+    private final int maxSize;
+    private final long idleTimeoutNanos;
+    private final LongSupplier clock;
+
+    // Writes to the same game take turns, so the cache can't end up holding an older write than the database
+    private final Object[] writeLocks = new Object[32];
+
+    private final LinkedHashMap<Integer, Entry> cache;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long writes;
+    private long skippedWrites;
+
+    // Bumped whenever games are dropped, so a lookup that raced with it doesn't cache a stale game
+    private long invalidations;
+
+    public CachingGameDAO(GameDAO gameDAO, int maxSize, Duration idleTimeout) {
+        this(gameDAO, maxSize, idleTimeout, System::nanoTime);
+    }
+
+    CachingGameDAO(GameDAO gameDAO, int maxSize, Duration idleTimeout, LongSupplier clock) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1");
+        }
+        this.gameDAO = gameDAO;
+        this.maxSize = maxSize;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.clock = clock;
+        for (int i = 0; i < writeLocks.length; i++) {
+            writeLocks[i] = new Object();
+        }
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                if (size() > CachingGameDAO.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public void createGame(GameData gameData) throws DataAccessException {
+        gameDAO.createGame(gameData);
+        byte[] gameState = gameData.game().encode();
+        synchronized (this) {
+            cache.put(gameData.gameID(), new Entry(gameData, gameState, clock.getAsLong()));
+        }
+    }
+
+    @Override
+    public GameData getGame(int gameID) throws DataAccessException {
+        long seenInvalidations;
+        synchronized (this) {
+            Entry entry = cache.get(gameID);
+            if (entry != null) {
+                long now = clock.getAsLong();
+                if (now - entry.lastUsed < idleTimeoutNanos) {
+                    entry.lastUsed = now;
+                    hits++;
+                    return entry.toGameData(gameID);
+                }
+                cache.remove(gameID);
+                evictions++;
+            }
+            misses++;
+            seenInvalidations = invalidations;
+        }
+
+        GameData gameData = gameDAO.getGame(gameID);
+        if (gameData != null) {
+            byte[] gameState = gameData.game().encode();
+            synchronized (this) {
+                if (invalidations == seenInvalidations && !cache.containsKey(gameID)) {
+                    cache.put(gameID, new Entry(gameData, gameState, clock.getAsLong()));
+                }
+            }
+        }
+        return gameData;
+    }
+
+    @Override
+    public List<GameData> listGames() throws DataAccessException {
+        return gameDAO.listGames();
+    }
+
+    @Override
+    public List<GameSummary> listGameSummaries(GameQuery query) throws DataAccessException {
+        return gameDAO.listGameSummaries(query);
+    }
+
+    @Override
+    public void updateGame(String userName, ChessGame.TeamColor playerColor, int gameID) throws DataAccessException {
+        try {
+            gameDAO.updateGame(userName, playerColor, gameID);
+        } finally {
+            invalidate(gameID);
+        }
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        try {
+            gameDAO.clear();
+        } finally {
+            synchronized (this) {
+                cache.clear();
+                invalidations++;
+            }
+        }
+    }
+
+    @Override
+    public void updateGameInDB(GameData gameData) throws DataAccessException {
+        byte[] gameState = gameData.game().encode();
+        synchronized (writeLock(gameData.gameID())) {
+            synchronized (this) {
+                Entry entry = cache.get(gameData.gameID());
+                if (entry != null && entry.matches(gameData, gameState)) {
+                    skippedWrites++;
+                    return;
+                }
+            }
+
+            try {
+                gameDAO.updateGameInDB(gameData);
+            } catch (DataAccessException | RuntimeException e) {
+                // The database may or may not have the update, so stop trusting the cached game
+                invalidate(gameData.gameID());
+                throw e;
+            }
+            cacheWrite(gameData, gameState);
+        }
+    }
+
+    @Override
+    public void recordMove(GameData gameData, ChessMove move) throws DataAccessException {
+        byte[] gameState = gameData.game().encode();
+        synchronized (writeLock(gameData.gameID())) {
+            try {
+                gameDAO.recordMove(gameData, move);
+            } catch (DataAccessException | RuntimeException e) {
+                invalidate(gameData.gameID());
+                throw e;
+            }
+            cacheWrite(gameData, gameState);
+        }
+    }
+
+    @Override
+    public void saveGames(List<GameUpdate> updates) throws DataAccessException {
+        List<byte[]> gameStates = new ArrayList<>(updates.size());
+        for (GameUpdate update : updates) {
+            gameStates.add(update.gameData().game().encode());
+        }
+        int[] stripes = updates.stream()
+                .mapToInt(update -> Math.floorMod(update.gameData().gameID(), writeLocks.length))
+                .distinct()
+                .sorted()
+                .toArray();
+        saveGamesLocked(updates, gameStates, stripes, 0);
+    }
+
+    // Takes the write lock of every game in the batch, in stripe order so two batches can't deadlock,
+    // then saves the batch and caches what was written
+    private void saveGamesLocked(List<GameUpdate> updates, List<byte[]> gameStates, int[] stripes, int next)
+            throws DataAccessException {
+        if (next < stripes.length) {
+            synchronized (writeLocks[stripes[next]]) {
+                saveGamesLocked(updates, gameStates, stripes, next + 1);
+            }
+            return;
+        }
+
+        try {
+            gameDAO.saveGames(updates);
+        } catch (DataAccessException | RuntimeException e) {
+            updates.forEach(update -> invalidate(update.gameData().gameID()));
+            throw e;
+        }
+        for (int i = 0; i < updates.size(); i++) {
+            cacheWrite(updates.get(i).gameData(), gameStates.get(i));
+        }
+    }
+
+    /**
+     * @return the cache's counters as they are right now
+     */
+    public synchronized Metrics metrics() {
+        return new Metrics(hits, misses, evictions, writes, skippedWrites, cache.size());
+    }
+
+    private Object writeLock(int gameID) {
+        return writeLocks[Math.floorMod(gameID, writeLocks.length)];
+    }
+
+    private synchronized void cacheWrite(GameData gameData, byte[] gameState) {
+        writes++;
+        cache.put(gameData.gameID(), new Entry(gameData, gameState, clock.getAsLong()));
+    }
+
+    private synchronized void invalidate(int gameID) {
+        cache.remove(gameID);
+        invalidations++;
+    }
+}
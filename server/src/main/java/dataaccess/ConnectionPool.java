@@ -0,0 +1,480 @@
+package dataaccess;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded pool of database connections, so each DAO call borrows an open
+ * connection instead of paying for a new TCP connection and MySQL login.
+ * <p>
+ * Connections handed out by the pool go back to it when they are closed, so
+ * the usual try-with-resources block works unchanged. A background thread
+ * closes connections that have sat idle longer than the idle timeout (never
+ * dropping below the minimum size), tops the pool back up to the minimum,
+ * and reports connections that have been borrowed for longer than the leak
+ * detection threshold.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    /**
+     * Opens a new physical connection for the pool
+     */
+    public interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    /**
+     * @param minSize              connections to keep open even when idle
+     * @param maxSize              the most connections open at once
+     * @param idleTimeoutMillis    how long a connection above the minimum may sit idle before it is closed
+     * @param connectionTimeoutMillis how long to wait for a connection when all of them are in use
+     * @param validationQuery      a query run to check an idle connection still works before handing it
+     *                             out, or null to use Connection.isValid
+     * @param leakDetectionMillis  how long a connection may be borrowed before it is reported as a
+     *                             possible leak, or 0 to never report
+     */
+    public record Settings(int minSize, int maxSize, long idleTimeoutMillis, long connectionTimeoutMillis,
+                           String validationQuery, long leakDetectionMillis) {
+
+        public Settings {
+            if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+                throw new IllegalArgumentException("Pool sizes must satisfy 0 <= min <= max and max >= 1");
+            }
+        }
+
+        /**
+         * Reads the db.pool.* keys, using the defaults for any that are missing
+         */
+        public static Settings fromProperties(Properties props) {
+            String validationQuery = props.getProperty("db.pool.validationQuery");
+            return new Settings(
+                    Integer.parseInt(props.getProperty("db.pool.minSize", "2")),
+                    Integer.parseInt(props.getProperty("db.pool.maxSize", "10")),
+                    Long.parseLong(props.getProperty("db.pool.idleTimeoutMs", "600000")),
+                    Long.parseLong(props.getProperty("db.pool.connectionTimeoutMs", "30000")),
+                    (validationQuery == null || validationQuery.isBlank()) ? null : validationQuery,
+                    Long.parseLong(props.getProperty("db.pool.leakDetectionMs", "0")));
+        }
+    }
+
+    /**
+     * A snapshot of the pool's counters
+     *
+     * @param total     connections open right now
+     * @param idle      open connections waiting to be borrowed
+     * @param active    connections borrowed right now
+     * @param waiting   threads waiting for a connection
+     * @param created   connections opened since the pool started
+     * @param closed    connections closed since the pool started
+     * @param borrowed  times a connection has been handed out
+     * @param timeouts  times a caller gave up waiting for a connection
+     * @param leaks     connections reported as possible leaks
+     */
+    public record Metrics(int total, int idle, int active, int waiting, long created, long closed,
+                          long borrowed, long timeouts, long leaks) {}
+
+    // Idle connections that were used this recently are handed out without validating them first
+    private static final long VALIDATION_BYPASS_MILLIS = 500;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    private static final System.Logger LOGGER = System.getLogger(ConnectionPool.class.getName());
+
+    private final ConnectionFactory factory;
+    private final Settings settings;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Deque<Entry> idle = new ArrayDeque<>();
+    private final Map<Connection, Entry> active = new IdentityHashMap<>();
+    private final ScheduledExecutorService housekeeper;
+
+    private int total;
+    private int waiting;
+    private long created;
+    private long closed;
+    private long borrowed;
+    private long timeouts;
+    private long leaks;
+    private boolean shutDown;
+
+    private static final class Entry {
+        final Connection connection;
+        // The settings the connection was opened with, which reset puts back after each borrower
+        final String catalog;
+        final boolean readOnly;
+        final int transactionIsolation;
+        long lastUsed;
+        long borrowedAt;
+        Exception borrowedFrom;
+        boolean reportedLeak;
+
+        Entry(Connection connection) throws SQLException {
+            this.connection = connection;
+            this.catalog = connection.getCatalog();
+            this.readOnly = connection.isReadOnly();
+            this.transactionIsolation = connection.getTransactionIsolation();
+            this.lastUsed = System.currentTimeMillis();
+        }
+    }
+
+    public ConnectionPool(ConnectionFactory factory, Settings settings) {
+        this.factory = factory;
+        this.settings = settings;
+
+        housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, Math.min(settings.idleTimeoutMillis(),
+                settings.leakDetectionMillis() > 0 ? settings.leakDetectionMillis() : Long.MAX_VALUE) / 2);
+        housekeeper.scheduleWithFixedDelay(this::houseKeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection, opening a new one if none are idle and the pool
+     * isn't full, or waiting for one to be returned if it is. Closing the
+     * connection returns it to the pool.
+     *
+     * @throws SQLException if a connection couldn't be opened, or none was
+     * returned within the connection timeout
+     */
+    public Connection getConnection() throws SQLException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(settings.connectionTimeoutMillis());
+        while (true) {
+            Entry entry = null;
+            boolean mayOpen = false;
+
+            lock.lock();
+            try {
+                while (!shutDown && idle.isEmpty() && total >= settings.maxSize()) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        timeouts++;
+                        throw new SQLException("Timed out after " + settings.connectionTimeoutMillis()
+                                + " ms waiting for a database connection");
+                    }
+                    waiting++;
+                    try {
+                        available.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted waiting for a database connection", e);
+                    } finally {
+                        waiting--;
+                    }
+                }
+                if (shutDown) {
+                    throw new SQLException("Connection pool is shut down");
+                }
+                if (!idle.isEmpty()) {
+                    entry = idle.pollFirst();
+                }
+                else {
+                    // Count the connection now so other threads can't overfill the pool while it opens
+                    total++;
+                    mayOpen = true;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (mayOpen) {
+                entry = open();
+            }
+            else if (!isUsable(entry)) {
+                discard(entry);
+                continue;
+            }
+            return lend(entry);
+        }
+    }
+
+    /**
+     * @return the pool's counters as they are right now
+     */
+    public Metrics metrics() {
+        lock.lock();
+        try {
+            return new Metrics(total, idle.size(), active.size(), waiting, created, closed, borrowed, timeouts, leaks);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes every idle connection and stops handing out new ones. Borrowed
+     * connections are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        housekeeper.shutdownNow();
+        Deque<Entry> toClose;
+        lock.lock();
+        try {
+            shutDown = true;
+            toClose = new ArrayDeque<>(idle);
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        toClose.forEach(this::discard);
+    }
+
+    private Entry open() throws SQLException {
+        try {
+            Entry entry = newEntry(factory.open());
+            lock.lock();
+            try {
+                created++;
+            } finally {
+                lock.unlock();
+            }
+            return entry;
+        } catch (SQLException | RuntimeException e) {
+            lock.lock();
+            try {
+                total--;
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+    }
+
+    private static Entry newEntry(Connection connection) throws SQLException {
+        try {
+            return new Entry(connection);
+        } catch (SQLException | RuntimeException e) {
+            try {
+                connection.close();
+            } catch (SQLException closeFailure) {
+                e.addSuppressed(closeFailure);
+            }
+            throw e;
+        }
+    }
+
+    private Connection lend(Entry entry) {
+        entry.borrowedAt = System.currentTimeMillis();
+        entry.reportedLeak = false;
+        entry.borrowedFrom = (settings.leakDetectionMillis() > 0)
+                ? new Exception("Connection borrowed here") : null;
+
+        Connection proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new PooledConnection(entry));
+        lock.lock();
+        try {
+            active.put(proxy, entry);
+            borrowed++;
+        } finally {
+            lock.unlock();
+        }
+        return proxy;
+    }
+
+    private void giveBack(Connection proxy, Entry entry) {
+        boolean keep = reset(entry);
+        lock.lock();
+        try {
+            active.remove(proxy);
+            if (keep && !shutDown) {
+                entry.lastUsed = System.currentTimeMillis();
+                idle.addFirst(entry);
+                available.signal();
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        discard(entry);
+    }
+
+    // Undoes anything a borrower may have changed, so the next one gets a clean connection
+    private boolean reset(Entry entry) {
+        Connection connection = entry.connection;
+        try {
+            if (connection.isClosed()) {
+                return false;
+            }
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            if (connection.getTransactionIsolation() != entry.transactionIsolation) {
+                connection.setTransactionIsolation(entry.transactionIsolation);
+            }
+            if (connection.isReadOnly() != entry.readOnly) {
+                connection.setReadOnly(entry.readOnly);
+            }
+            if (entry.catalog != null && !entry.catalog.equals(connection.getCatalog())) {
+                connection.setCatalog(entry.catalog);
+            }
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private boolean isUsable(Entry entry) {
+        if (System.currentTimeMillis() - entry.lastUsed < VALIDATION_BYPASS_MILLIS) {
+            return true;
+        }
+        try {
+            if (settings.validationQuery() == null) {
+                return entry.connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            }
+            try (Statement statement = entry.connection.createStatement()) {
+                statement.setQueryTimeout(VALIDATION_TIMEOUT_SECONDS);
+                statement.execute(settings.validationQuery());
+                return true;
+            }
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    // Closes a connection the pool is done with and frees its slot
+    private void discard(Entry entry) {
+        try {
+            entry.connection.close();
+        } catch (SQLException ignored) {
+            // It is being thrown away either way
+        }
+        lock.lock();
+        try {
+            total--;
+            closed++;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void houseKeep() {
+        long now = System.currentTimeMillis();
+        Deque<Entry> expired = new ArrayDeque<>();
+        Deque<Entry> leaked = new ArrayDeque<>();
+        int missing;
+
+        lock.lock();
+        try {
+            // The oldest idle connections are at the back
+            while (total - expired.size() > settings.minSize() && !idle.isEmpty()
+                    && now - idle.peekLast().lastUsed > settings.idleTimeoutMillis()) {
+                expired.add(idle.pollLast());
+            }
+
+            if (settings.leakDetectionMillis() > 0) {
+                for (Entry entry : active.values()) {
+                    if (!entry.reportedLeak && now - entry.borrowedAt > settings.leakDetectionMillis()) {
+                        entry.reportedLeak = true;
+                        leaks++;
+                        leaked.add(entry);
+                    }
+                }
+            }
+
+            missing = shutDown ? 0 : settings.minSize() - (total - expired.size());
+            if (missing > 0) {
+                total += missing;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        for (Entry entry : leaked) {
+            LOGGER.log(System.Logger.Level.WARNING, "Database connection borrowed " + (now - entry.borrowedAt)
+                    + " ms ago has not been returned; possible leak", entry.borrowedFrom);
+        }
+        expired.forEach(this::discard);
+
+        for (int i = 0; i < missing; i++) {
+            try {
+                Entry entry = open();
+                lock.lock();
+                try {
+                    idle.addLast(entry);
+                    available.signal();
+                } finally {
+                    lock.unlock();
+                }
+            } catch (SQLException | RuntimeException e) {
+                // open() gave back its own slot; give back the rest and try again on the next run
+                lock.lock();
+                try {
+                    total -= missing - i - 1;
+                    available.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Stands in for a pooled connection. Closing it hands the real
+     * connection back to the pool instead of closing it.
+     */
+    private final class PooledConnection implements InvocationHandler {
+        private final Entry entry;
+        private boolean returned;
+
+        PooledConnection(Entry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!returned) {
+                        returned = true;
+                        giveBack((Connection) proxy, entry);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return returned || entry.connection.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled " + entry.connection;
+                }
+                default -> {
+                    if (returned) {
+                        throw new SQLException("Connection has been returned to the pool");
+                    }
+                    try {
+                        return method.invoke(entry.connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+            }
+        }
+    }
+}
@@ -1,19 +1,35 @@
 package dataaccess;
 
 import java.sql.*;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class DatabaseManager {
     private static String databaseName;
     private static String dbUsername;
     private static String dbPassword;
     private static String connectionUrl;
+    private static Properties connectionProperties;
+    private static ConnectionPool.Settings poolSettings;
+    private static ConnectionPool pool;
+    private static long writeBehindMillis;
+
+    private static final System.Logger LOGGER = System.getLogger(DatabaseManager.class.getName());
+
+    // SQL the DAOs run on every request, prepared on each new pooled connection
+    private static final Set<String> registeredStatements = ConcurrentHashMap.newKeySet();
+
+    // The SQLState MySQL reports for a table that doesn't exist
+    private static final String NO_SUCH_TABLE = "42S02";
 
     /*
      * Load the database information for the db.properties file.
      */
     static {
-        loadPropertiesFromResources();
+        loadPropertiesFromResources(Map.of());
     }
 
     /**
@@ -30,10 +46,11 @@ public class DatabaseManager {
     }
 
     /**
-     * Create a connection to the database and sets the catalog based upon the
-     * properties specified in db.properties. Connections to the database should
-     * be short-lived, and you must close the connection when you are done with it.
-     * The easiest way to do that is with a try-with-resource block.
+     * Borrows a connection to the database from the connection pool, with the
+     * catalog set from db.properties. Connections to the database should be
+     * short-lived, and you must close the connection when you are done with it,
+     * which hands it back to the pool. The easiest way to do that is with a
+     * try-with-resource block.
      * <br/>
      * <code>
      * try (var conn = DatabaseManager.getConnection()) {
@@ -43,29 +60,100 @@ public class DatabaseManager {
      */
     static Connection getConnection() throws DataAccessException {
         try {
-            //do not wrap the following line with a try-with-resources
-            var conn = DriverManager.getConnection(connectionUrl, dbUsername, dbPassword);
-            conn.setCatalog(databaseName);
-            return conn;
+            return pool().getConnection();
         } catch (SQLException ex) {
             throw new DataAccessException("failed to get connection", ex);
         }
     }
 
-    private static void loadPropertiesFromResources() {
+    /**
+     * @return the connection pool's counters as they are right now
+     */
+    public static ConnectionPool.Metrics poolMetrics() {
+        return pool().metrics();
+    }
+
+    private static synchronized ConnectionPool pool() {
+        if (pool == null) {
+            String url = connectionUrl;
+            Properties properties = connectionProperties;
+            String catalog = databaseName;
+            boolean cacheStatements = Boolean.parseBoolean(properties.getProperty("cachePrepStmts"));
+            pool = new ConnectionPool(() -> {
+                //do not wrap the following line with a try-with-resources
+                var conn = DriverManager.getConnection(url, properties);
+                conn.setCatalog(catalog);
+                if (cacheStatements) {
+                    prepareRegisteredStatements(conn);
+                }
+                return conn;
+            }, poolSettings);
+        }
+        return pool;
+    }
+
+    /**
+     * @return how often queued game saves are written, in milliseconds, or 0
+     * if games should be saved as soon as they change
+     */
+    public static synchronized long writeBehindMillis() {
+        return writeBehindMillis;
+    }
+
+    /**
+     * Registers SQL that the DAOs run often. Each new pooled connection
+     * prepares these up front, and with cachePrepStmts on, the driver keeps the
+     * prepared statements cached on the connection. A DAO call that prepares
+     * the same SQL then gets the cached statement instead of having the server
+     * parse the query again.
+     *
+     * @param statements the SQL, exactly as the DAO passes it to prepareStatement
+     */
+    static void registerStatements(String... statements) {
+        registeredStatements.addAll(List.of(statements));
+    }
+
+    private static void prepareRegisteredStatements(Connection conn) {
+        for (String statement : registeredStatements) {
+            try {
+                // Closing a cached statement hands it back to the driver's cache
+                conn.prepareStatement(statement).close();
+            } catch (SQLException ex) {
+                // Its table may not exist yet, and the DAO will prepare it when it first runs
+                if (!NO_SUCH_TABLE.equals(ex.getSQLState())) {
+                    LOGGER.log(System.Logger.Level.WARNING, "Unable to prepare registered statement \""
+                            + statement + "\": " + ex.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Loads db.properties again with some of its settings replaced, and starts
+     * a new connection pool to match. This lets tools like the benchmarks
+     * compare settings without editing the file.
+     *
+     * @param overrides settings to use instead of the file's, by property name
+     */
+    public static void reloadProperties(Map<String, String> overrides) {
+        loadPropertiesFromResources(overrides);
+    }
+
+    private static void loadPropertiesFromResources(Map<String, String> overrides) {
         try (var propStream = Thread.currentThread().getContextClassLoader().getResourceAsStream("db.properties")) {
             if (propStream == null) {
                 throw new Exception("Unable to load db.properties");
             }
             Properties props = new Properties();
             props.load(propStream);
+            props.putAll(overrides);
             loadProperties(props);
         } catch (Exception ex) {
             throw new RuntimeException("unable to process db.properties", ex);
         }
     }
 
-    private static void loadProperties(Properties props) {
+    private static synchronized void loadProperties(Properties props) {
         databaseName = props.getProperty("db.name");
         dbUsername = props.getProperty("db.user");
         dbPassword = props.getProperty("db.password");
@@ -73,6 +161,31 @@ public class DatabaseManager {
         var host = props.getProperty("db.host");
         var port = Integer.parseInt(props.getProperty("db.port"));
         connectionUrl = String.format("jdbc:mysql://%s:%d", host, port);
+
+        // Have the driver prepare statements on the server and keep them cached on each connection
+        connectionProperties = new Properties();
+        if (dbUsername != null) {
+            connectionProperties.setProperty("user", dbUsername);
+        }
+        if (dbPassword != null) {
+            connectionProperties.setProperty("password", dbPassword);
+        }
+        connectionProperties.setProperty("cachePrepStmts", props.getProperty("db.cachePrepStmts", "true"));
+        connectionProperties.setProperty("useServerPrepStmts", props.getProperty("db.useServerPrepStmts", "true"));
+        connectionProperties.setProperty("prepStmtCacheSize", props.getProperty("db.prepStmtCacheSize", "250"));
+        connectionProperties.setProperty("prepStmtCacheSqlLimit", props.getProperty("db.prepStmtCacheSqlLimit", "2048"));
+
+        // Send a batch of inserts as one multi-row statement
+        connectionProperties.setProperty("rewriteBatchedStatements", props.getProperty("db.rewriteBatchedStatements", "true"));
+
+        poolSettings = ConnectionPool.Settings.fromProperties(props);
+        writeBehindMillis = Long.parseLong(props.getProperty("db.writeBehindMs", "0"));
+
+        // Connections from the old pool point at the old database, so start a new pool
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
     }
 
     public static void configureDatabase(String createStatement) throws DataAccessException {
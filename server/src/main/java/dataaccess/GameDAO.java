@@ -1,7 +1,10 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessMove;
 import model.GameData;
+import model.GameQuery;
+import model.GameSummary;
 
 import java.util.List;
 
@@ -9,7 +12,29 @@ public interface GameDAO {
     void createGame(GameData gameData) throws DataAccessException;
     GameData getGame(int gameID) throws DataAccessException;
     List<GameData> listGames() throws DataAccessException;
+    List<GameSummary> listGameSummaries(GameQuery query) throws DataAccessException;
     void updateGame(String userName, ChessGame.TeamColor playerColor, int gameID) throws DataAccessException;
     void clear() throws DataAccessException;
     void updateGameInDB(GameData gameData) throws DataAccessException;
+
+    /**
+     * Saves a game right after a move was made in it. DAOs that can store the
+     * move alone do so; the rest save the whole game.
+     *
+     * @param gameData the game, with the move already made
+     * @param move     the move that was just made
+     */
+    default void recordMove(GameData gameData, ChessMove move) throws DataAccessException {
+        updateGameInDB(gameData);
+    }
+
+    /**
+     * Saves several games at once. DAOs that can write them in a single batch
+     * do so; the rest save each whole game in turn.
+     */
+    default void saveGames(List<GameUpdate> updates) throws DataAccessException {
+        for (GameUpdate update : updates) {
+            updateGameInDB(update.gameData());
+        }
+    }
 }
@@ -0,0 +1,18 @@
+package dataaccess;
+
+import chess.ChessMove;
+import model.GameData;
+
+import java.util.List;
+
+/**
+ * A game waiting to be saved, with the moves made in it since it was last saved
+ *
+ * @param gameData      the game as it is now
+ * @param moves         the moves made since the game was last saved, oldest first
+ * @param stateChanged  whether anything besides those moves changed, such as
+ *                      the players or the game ending, so the whole game must
+ *                      be saved
+ */
+public record GameUpdate(GameData gameData, List<ChessMove> moves, boolean stateChanged) {
+}
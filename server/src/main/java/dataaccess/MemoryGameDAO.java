@@ -2,8 +2,11 @@ package dataaccess;
 
 import chess.ChessGame;
 import model.GameData;
+import model.GameQuery;
+import model.GameSummary;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,6 +30,17 @@ public class MemoryGameDAO implements GameDAO {
         return new ArrayList<>(games.values());
     }
 
+    @Override
+    public List<GameSummary> listGameSummaries(GameQuery query) throws DataAccessException {
+        return games.values().stream()
+                .filter(gameData -> gameData.gameID() > query.after())
+                .map(GameSummary::of)
+                .filter(query::matches)
+                .sorted(Comparator.comparingInt(GameSummary::gameID))
+                .limit(query.limit())
+                .toList();
+    }
+
     @Override
     public void updateGame(String userName, ChessGame.TeamColor playerColor, int gameID) throws DataAccessException {
         GameData existingGame = getGame(gameID);
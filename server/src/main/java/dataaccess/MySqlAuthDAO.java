@@ -21,14 +21,18 @@ public class MySqlAuthDAO implements AuthDAO {
         """
         ;
 
+    private static final String INSERT_AUTH = "INSERT INTO auth_tokens (token, username) VALUES (?, ?)";
+    private static final String SELECT_AUTH = "SELECT token, username FROM auth_tokens WHERE token=?";
+    private static final String DELETE_AUTH = "DELETE FROM auth_tokens WHERE token=?";
+
     public MySqlAuthDAO() throws DataAccessException {
         configureDatabase(createStatement);
+        registerStatements(INSERT_AUTH, SELECT_AUTH, DELETE_AUTH);
     }
 
     public void createAuth(AuthData authData) throws DataAccessException {
         try (var conn = getConnection()) {
-            var statement = "INSERT INTO auth_tokens (token, username) VALUES (?, ?)";
-            try (PreparedStatement ps = conn.prepareStatement(statement)) {
+            try (PreparedStatement ps = conn.prepareStatement(INSERT_AUTH)) {
                 ps.setString(1, authData.authToken());
                 ps.setString(2, authData.username());
                 ps.executeUpdate();
@@ -40,8 +44,7 @@ public class MySqlAuthDAO implements AuthDAO {
 
     public AuthData getAuth(String authToken) throws DataAccessException {
         try (var conn = getConnection()) {
-            var statement = "SELECT token, username FROM auth_tokens WHERE token=?";
-            try (PreparedStatement ps = conn.prepareStatement(statement)) {
+            try (PreparedStatement ps = conn.prepareStatement(SELECT_AUTH)) {
                 ps.setString(1, authToken);
                 try (ResultSet rs = ps.executeQuery()) {
                     if (rs.next()) {
@@ -61,8 +64,7 @@ public class MySqlAuthDAO implements AuthDAO {
 
     public void deleteAuth(String authToken) throws DataAccessException {
         try (var conn = getConnection()) {
-            var statement = "DELETE FROM auth_tokens WHERE token=?";
-            try (PreparedStatement ps = conn.prepareStatement(statement)) {
+            try (PreparedStatement ps = conn.prepareStatement(DELETE_AUTH)) {
                 ps.setString(1, authToken);
                 ps.executeUpdate();
             }
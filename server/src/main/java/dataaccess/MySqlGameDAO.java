@@ -1,20 +1,49 @@
 package dataaccess;
 
 import chess.ChessGame;
-import com.google.gson.Gson;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.MoveList;
 import model.GameData;
+import model.GameQuery;
+import model.GameSummary;
+import serialization.Serializer;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static dataaccess.DatabaseManager.*;
 
+/**
+ * Stores games in MySQL. Each move is appended to the game_moves table, and
+ * every SNAPSHOT_INTERVAL moves the whole game is saved again in the games
+ * table along with the last move it includes. Loading a game reads the latest
+ * snapshot and replays the moves made since.
+ * <p>
+ * Each logged move carries its ply, the number of half-moves made before it,
+ * and a game can't log two moves with the same ply. A writer working from an
+ * out-of-date copy of the game, or racing another move, is turned away rather
+ * than adding a move that doesn't follow from the ones before it.
+ */
 public class MySqlGameDAO implements GameDAO{
 
+    /**
+     * How many half-moves go by between snapshots of a game's full state
+     */
+    static final int SNAPSHOT_INTERVAL = 20;
+
+    private static final System.Logger LOGGER = System.getLogger(MySqlGameDAO.class.getName());
+
     private final String createStatement =
         """
         CREATE TABLE IF NOT EXISTS games (
@@ -22,29 +51,169 @@ public class MySqlGameDAO implements GameDAO{
             `whiteUsername` VARCHAR(256),
             `blackUsername` VARCHAR(256),
             `gameName`      VARCHAR(256) NOT NULL,
-            `gameState`     TEXT NOT NULL,
+            `gameState`     BLOB NOT NULL,
+            `snapshotMoveID` BIGINT NOT NULL DEFAULT 0,
+            `gameOver`      BOOLEAN NOT NULL DEFAULT FALSE,
             PRIMARY KEY (`gameID`),
+            INDEX (`gameOver`, `gameID`),
             FOREIGN KEY (`whiteUsername`) REFERENCES users(`username`),
             FOREIGN KEY (`blackUsername`) REFERENCES users(`username`)
         )
         """
         ;
 
+    // No foreign key to games, since MySQL won't truncate a table that one refers to
+    private final String createMovesStatement =
+        """
+        CREATE TABLE IF NOT EXISTS game_moves (
+            `moveID`  BIGINT NOT NULL AUTO_INCREMENT,
+            `gameID`  INT NOT NULL,
+            `ply`     INT NOT NULL,
+            `move`    INT NOT NULL,
+            PRIMARY KEY (`moveID`),
+            INDEX (`gameID`, `moveID`),
+            UNIQUE (`gameID`, `ply`)
+        )
+        """
+        ;
+
+    private final String columnTypeStatement =
+        """
+        SELECT DATA_TYPE FROM information_schema.COLUMNS
+        WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?
+        """
+        ;
+
+    // Games used to be stored as JSON text; the JSON still loads once the column holds bytes
+    private final String migrateGameStateStatement = "ALTER TABLE games MODIFY `gameState` BLOB NOT NULL";
+
+    // Games saved before the move log have no moves to replay, so their snapshot starts at 0
+    private final String addSnapshotMoveIDStatement =
+        "ALTER TABLE games ADD COLUMN `snapshotMoveID` BIGINT NOT NULL DEFAULT 0";
+
+    // The game list filters on whether a game is over, which used to be stored only inside gameState
+    private final String addGameOverStatement =
+        "ALTER TABLE games ADD COLUMN `gameOver` BOOLEAN NOT NULL DEFAULT FALSE, ADD INDEX (`gameOver`, `gameID`)";
+    // Moves logged before plies were numbered, in the order they were logged
+    private final String addPlyStatement =
+        "ALTER TABLE game_moves ADD COLUMN `ply` INT NOT NULL DEFAULT 0 AFTER `gameID`";
+    private final String fillPlyStatement =
+        """
+        UPDATE game_moves m JOIN (
+            SELECT moveID, ROW_NUMBER() OVER (PARTITION BY gameID ORDER BY moveID) - 1 AS ply FROM game_moves
+        ) numbered ON numbered.moveID = m.moveID
+        SET m.ply = numbered.ply
+        """;
+    private final String addPlyIndexStatement =
+        "ALTER TABLE game_moves ALTER COLUMN `ply` DROP DEFAULT, ADD UNIQUE (`gameID`, `ply`)";
+    private final String selectGameStatesStatement = "SELECT gameID, gameState FROM games";
+    private final String setGameOverStatement = "UPDATE games SET gameOver=TRUE WHERE gameID=?";
+
+    private static final String INSERT_GAME =
+        "INSERT INTO games (gameID, whiteUsername, blackUsername, gameName, gameState, gameOver) "
+        + "VALUES (?, ?, ?, ?, ?, ?)";
+    // Each game comes back once per move made since its snapshot, or once with a null move if there are none
+    private static final String SELECT_GAME =
+        "SELECT g.gameID, g.whiteUsername, g.blackUsername, g.gameName, g.gameState, m.move FROM games g "
+        + "LEFT JOIN game_moves m ON m.gameID = g.gameID AND m.moveID > g.snapshotMoveID "
+        + "WHERE g.gameID=? ORDER BY m.ply";
+    private static final String SELECT_GAMES =
+        "SELECT g.gameID, g.whiteUsername, g.blackUsername, g.gameName, g.gameState, m.move FROM games g "
+        + "LEFT JOIN game_moves m ON m.gameID = g.gameID AND m.moveID > g.snapshotMoveID "
+        + "ORDER BY g.gameID, m.ply";
+    // Filters go between these two; the foreign keys' indexes on the usernames serve the player filter
+    private static final String SELECT_GAME_SUMMARIES =
+        "SELECT gameID, whiteUsername, blackUsername, gameName, gameOver FROM games WHERE gameID > ?";
+    private static final String GAME_SUMMARIES_PAGE = " ORDER BY gameID LIMIT ?";
+    private static final String SELECT_MOVES =
+        "SELECT move FROM game_moves WHERE gameID=? ORDER BY ply";
+    private static final String INSERT_MOVE =
+        "INSERT INTO game_moves (gameID, ply, move) VALUES (?, ?, ?)";
+    private static final String LAST_MOVE_ID =
+        "(SELECT COALESCE(MAX(moveID), 0) FROM game_moves WHERE gameID=?)";
+    private static final String UPDATE_GAME_STATE =
+        "UPDATE games SET whiteUsername=?, blackUsername=?, gameState=?, gameOver=?, snapshotMoveID=" + LAST_MOVE_ID
+        + " WHERE gameID=?";
+    private static final String UPDATE_SNAPSHOT =
+        "UPDATE games SET gameState=?, snapshotMoveID=" + LAST_MOVE_ID + " WHERE gameID=?";
+
+
+    // MySQL's error code for a duplicate key, which for game_moves means the ply is already logged
+    private static final int DUPLICATE_KEY = 1062;
 
     public MySqlGameDAO() throws DataAccessException {
         configureDatabase(createStatement);
+        configureDatabase(createMovesStatement);
+        migrateGames();
+        registerStatements(INSERT_GAME, SELECT_GAME, SELECT_GAMES, SELECT_GAME_SUMMARIES + GAME_SUMMARIES_PAGE,
+                INSERT_MOVE, UPDATE_GAME_STATE, UPDATE_SNAPSHOT);
+    }
+
+    private void migrateGames() throws DataAccessException {
+        try (var conn = getConnection()) {
+            String gameStateType = columnType(conn, "games", "gameState");
+            if (gameStateType != null && gameStateType.toLowerCase().endsWith("text")) {
+                try (PreparedStatement ps = conn.prepareStatement(migrateGameStateStatement)) {
+                    ps.executeUpdate();
+                }
+            }
+            if (columnType(conn, "games", "snapshotMoveID") == null) {
+                try (PreparedStatement ps = conn.prepareStatement(addSnapshotMoveIDStatement)) {
+                    ps.executeUpdate();
+                }
+            }
+            if (columnType(conn, "games", "gameOver") == null) {
+                try (PreparedStatement ps = conn.prepareStatement(addGameOverStatement)) {
+                    ps.executeUpdate();
+                }
+                fillGameOver(conn);
+            }
+            if (columnType(conn, "game_moves", "ply") == null) {
+                for (String statement : List.of(addPlyStatement, fillPlyStatement, addPlyIndexStatement)) {
+                    try (PreparedStatement ps = conn.prepareStatement(statement)) {
+                        ps.executeUpdate();
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Unable to configure database: " + e.getMessage());
+        }
+    }
+
+    // Games only end through a full save, so each game's latest snapshot says whether it is over
+    private void fillGameOver(Connection conn) throws SQLException, DataAccessException {
+        try (PreparedStatement select = conn.prepareStatement(selectGameStatesStatement);
+             PreparedStatement update = conn.prepareStatement(setGameOverStatement);
+             ResultSet rs = select.executeQuery()) {
+            while (rs.next()) {
+                if (decodeGame(rs.getBytes("gameState")).isGameOver()) {
+                    update.setInt(1, rs.getInt("gameID"));
+                    update.addBatch();
+                }
+            }
+            update.executeBatch();
+        }
+    }
+
+    private String columnType(Connection conn, String table, String column) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(columnTypeStatement)) {
+            ps.setString(1, table);
+            ps.setString(2, column);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
     }
 
     public void createGame(GameData gameData) throws DataAccessException {
         try (var conn = getConnection()) {
-            var statement = "INSERT INTO games (gameID, whiteUsername, blackUsername, gameName, gameState) VALUES (?, ?, ?, ?, ?)";
-            try (PreparedStatement ps = conn.prepareStatement(statement)) {
-                String gameJson = new Gson().toJson(gameData.game());
+            try (PreparedStatement ps = conn.prepareStatement(INSERT_GAME)) {
                 ps.setInt(1, gameData.gameID());
                 ps.setString(2, gameData.whiteUsername());
                 ps.setString(3, gameData.blackUsername());
                 ps.setString(4, gameData.gameName());
-                ps.setString(5, gameJson);
+                ps.setBytes(5, gameData.game().encode());
+                ps.setBoolean(6, gameData.game().isGameOver());
                 ps.executeUpdate();
             }
         } catch (SQLException e) {
@@ -54,16 +223,11 @@ public class MySqlGameDAO implements GameDAO{
 
     public GameData getGame(int gameID) throws DataAccessException {
         try (var conn = getConnection()) {
-            var statement = "SELECT gameID, whiteUsername, blackUsername, gameName, gameState FROM games WHERE gameID=?";
-            try (PreparedStatement ps = conn.prepareStatement(statement)) {
+            try (PreparedStatement ps = conn.prepareStatement(SELECT_GAME)) {
                 ps.setInt(1, gameID);
                 try (ResultSet rs = ps.executeQuery()) {
-                    if (rs.next()) {
-                        return readGame(rs);
-                    }
-                    else {
-                        return null;
-                    }
+                    List<GameData> games = readGames(rs);
+                    return games.isEmpty() ? null : games.get(0);
                 }
             }
         } catch (SQLException e) {
@@ -72,13 +236,53 @@ public class MySqlGameDAO implements GameDAO{
     }
 
     public List<GameData> listGames() throws DataAccessException {
-        var result = new ArrayList<GameData>();
         try (Connection conn = DatabaseManager.getConnection()) {
-            var statement = "SELECT gameID, whiteUsername, blackUsername, gameName, gameState FROM games";
-            try (PreparedStatement ps = conn.prepareStatement(statement)) {
+            try (PreparedStatement ps = conn.prepareStatement(SELECT_GAMES)) {
+                try (ResultSet rs = ps.executeQuery()) {
+                    return readGames(rs);
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Unable to get game list: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lists a page of games without reading their state, for when only the
+     * players and names are needed. The filters are part of the query, and the
+     * page starts from the primary key, so the database reads no further than
+     * the page it returns.
+     */
+    public List<GameSummary> listGameSummaries(GameQuery query) throws DataAccessException {
+        var statement = new StringBuilder(SELECT_GAME_SUMMARIES);
+        if (query.openSeats()) {
+            statement.append(" AND (whiteUsername IS NULL OR blackUsername IS NULL)");
+        }
+        if (query.player() != null) {
+            statement.append(" AND (whiteUsername=? OR blackUsername=?)");
+        }
+        if (query.finished() != null) {
+            statement.append(" AND gameOver=?");
+        }
+        statement.append(GAME_SUMMARIES_PAGE);
+
+        var result = new ArrayList<GameSummary>();
+        try (var conn = getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement(statement.toString())) {
+                int index = 1;
+                ps.setInt(index++, query.after());
+                if (query.player() != null) {
+                    ps.setString(index++, query.player());
+                    ps.setString(index++, query.player());
+                }
+                if (query.finished() != null) {
+                    ps.setBoolean(index++, query.finished());
+                }
+                ps.setInt(index, query.limit());
                 try (ResultSet rs = ps.executeQuery()) {
                     while (rs.next()) {
-                        result.add(readGame(rs));
+                        result.add(new GameSummary(rs.getInt("gameID"), rs.getString("whiteUsername"),
+                                rs.getString("blackUsername"), rs.getString("gameName"), rs.getBoolean("gameOver")));
                     }
                 }
             }
@@ -88,14 +292,73 @@ public class MySqlGameDAO implements GameDAO{
         return result;
     }
 
-    private GameData readGame(ResultSet rs) throws DataAccessException, SQLException {
-        int gameID = rs.getInt("gameID");
-        String whiteUsername = rs.getString("whiteUsername");
-        String blackUsername = rs.getString("blackUsername");
-        String gameName = rs.getString("gameName");
-        String gameState = rs.getString("gameState");
-        ChessGame game = new Gson().fromJson(gameState, ChessGame.class);
-        return new GameData(gameID, whiteUsername, blackUsername, gameName, game);
+    /**
+     * @return every move made in a game, in the order they were made
+     */
+    public List<ChessMove> listMoves(int gameID) throws DataAccessException {
+        var result = new ArrayList<ChessMove>();
+        try (var conn = getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement(SELECT_MOVES)) {
+                ps.setInt(1, gameID);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        result.add(MoveList.toChessMove(rs.getInt("move")));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Unable to get moves: " + e.getMessage());
+        }
+        return result;
+    }
+
+    // Reads games from SELECT_GAME or SELECT_GAMES, replaying each one's moves onto its snapshot.
+    // The ply key keeps the log in order, so moves are replayed without checking they are legal.
+    private List<GameData> readGames(ResultSet rs) throws DataAccessException, SQLException {
+        Map<Integer, GameData> games = new LinkedHashMap<>();
+        Set<Integer> broken = new HashSet<>();
+        while (rs.next()) {
+            int gameID = rs.getInt("gameID");
+            GameData gameData = games.get(gameID);
+            if (gameData == null) {
+                String whiteUsername = rs.getString("whiteUsername");
+                String blackUsername = rs.getString("blackUsername");
+                String gameName = rs.getString("gameName");
+                ChessGame game = decodeGame(rs.getBytes("gameState"));
+                gameData = new GameData(gameID, whiteUsername, blackUsername, gameName, game);
+                games.put(gameID, gameData);
+            }
+
+            int move = rs.getInt("move");
+            if (!rs.wasNull() && !broken.contains(gameID) && !replayMove(gameData.game(), move)) {
+                broken.add(gameID);
+                LOGGER.log(System.Logger.Level.WARNING, "Game " + gameID + " has a logged move that doesn't fit, "
+                        + "so it was read up to the move before it");
+            }
+        }
+        return new ArrayList<>(games.values());
+    }
+
+    // Plays a logged move, unless its start square doesn't hold a piece of the side to move
+    private static boolean replayMove(ChessGame game, int move) {
+        ChessMove chessMove = MoveList.toChessMove(move);
+        ChessPiece piece = game.getBoard().getPiece(chessMove.getStartPosition());
+        if (piece == null || piece.getTeamColor() != game.getTeamTurn()) {
+            return false;
+        }
+        game.replayMove(chessMove);
+        return true;
+    }
+
+    private static ChessGame decodeGame(byte[] gameState) throws DataAccessException {
+        try {
+            if (gameState.length > 0 && gameState[0] == '{') {
+                return Serializer.fromJson(new String(gameState, StandardCharsets.UTF_8), ChessGame.class);
+            }
+            return ChessGame.decode(ByteBuffer.wrap(gameState));
+        } catch (RuntimeException e) {
+            throw new DataAccessException("Unable to read game: " + e.getMessage());
+        }
     }
 
     public void updateGame(String userName, ChessGame.TeamColor playerColor, int gameID) throws DataAccessException {
@@ -122,13 +385,13 @@ public class MySqlGameDAO implements GameDAO{
 
     public void updateGameInDB(GameData gameData) throws DataAccessException {
         try (var conn = getConnection()) {
-            String statement = "UPDATE games SET whiteUsername=?, blackUsername=?, gameState=? WHERE gameID=?";
-            String gameJson = new Gson().toJson(gameData.game());
-            try (PreparedStatement ps = conn.prepareStatement(statement)) {
+            try (PreparedStatement ps = conn.prepareStatement(UPDATE_GAME_STATE)) {
                 ps.setString(1, gameData.whiteUsername());
                 ps.setString(2, gameData.blackUsername());
-                ps.setString(3, gameJson);
-                ps.setInt(4, gameData.gameID());
+                ps.setBytes(3, gameData.game().encode());
+                ps.setBoolean(4, gameData.game().isGameOver());
+                ps.setInt(5, gameData.gameID());
+                ps.setInt(6, gameData.gameID());
                 int rowsAffected = ps.executeUpdate();
                 if (rowsAffected == 0) {
                     throw new DataAccessException("No games were updated");
@@ -139,8 +402,102 @@ public class MySqlGameDAO implements GameDAO{
         }
     }
 
+    /**
+     * Appends the move to the game's move log, and saves a new snapshot of the
+     * game once every SNAPSHOT_INTERVAL half-moves
+     *
+     * @param gameData the game with the move already made
+     * @throws DataAccessException if a move with the same ply is already
+     * logged, meaning the game has moved on since this copy was read
+     */
+    @Override
+    public void recordMove(GameData gameData, ChessMove move) throws DataAccessException {
+        int ply = halfMoves(gameData.game()) - 1;
+        try (var conn = getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement(INSERT_MOVE)) {
+                ps.setInt(1, gameData.gameID());
+                ps.setInt(2, ply);
+                ps.setInt(3, MoveList.encode(move));
+                ps.executeUpdate();
+            }
+
+            if (halfMoves(gameData.game()) % SNAPSHOT_INTERVAL == 0) {
+                try (PreparedStatement ps = conn.prepareStatement(UPDATE_SNAPSHOT)) {
+                    ps.setBytes(1, gameData.game().encode());
+                    ps.setInt(2, gameData.gameID());
+                    ps.setInt(3, gameData.gameID());
+                    ps.executeUpdate();
+                }
+            }
+        } catch (SQLException e) {
+            if (e.getErrorCode() == DUPLICATE_KEY) {
+                throw new DataAccessException("Unable to record move: game " + gameData.gameID()
+                        + " already has a move " + ply);
+            }
+            throw new DataAccessException("Unable to record move: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Appends every update's moves to the move log and saves the games that
+     * need a new snapshot, all in one transaction with one batch per statement
+     */
+    @Override
+    public void saveGames(List<GameUpdate> updates) throws DataAccessException {
+        try (var conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement movePs = conn.prepareStatement(INSERT_MOVE);
+                 PreparedStatement gamePs = conn.prepareStatement(UPDATE_GAME_STATE)) {
+                for (GameUpdate update : updates) {
+                    GameData gameData = update.gameData();
+                    int after = halfMoves(gameData.game());
+                    int before = after - update.moves().size();
+                    int ply = before;
+                    for (ChessMove move : update.moves()) {
+                        movePs.setInt(1, gameData.gameID());
+                        movePs.setInt(2, ply++);
+                        movePs.setInt(3, MoveList.encode(move));
+                        movePs.addBatch();
+                    }
+
+                    // Snapshot when a snapshot point falls among the new moves, as recordMove would have
+                    boolean snapshotDue = Math.floorDiv(after, SNAPSHOT_INTERVAL)
+                            != Math.floorDiv(before, SNAPSHOT_INTERVAL);
+                    if (update.stateChanged() || snapshotDue) {
+                        gamePs.setString(1, gameData.whiteUsername());
+                        gamePs.setString(2, gameData.blackUsername());
+                        gamePs.setBytes(3, gameData.game().encode());
+                        gamePs.setBoolean(4, gameData.game().isGameOver());
+                        gamePs.setInt(5, gameData.gameID());
+                        gamePs.setInt(6, gameData.gameID());
+                        gamePs.addBatch();
+                    }
+                }
+                movePs.executeBatch();
+                gamePs.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Unable to save games: " + e.getMessage());
+        }
+    }
+
+    // Half-moves played since the start, counted the way FEN does
+    private static int halfMoves(ChessGame game) {
+        int blackToMove = (game.getTeamTurn() == ChessGame.TeamColor.BLACK) ? 1 : 0;
+        return (game.getFullmoveNumber() - 1) * 2 + blackToMove;
+    }
+
     public void clear() throws DataAccessException {
         try (var conn = getConnection()) {
+            try (PreparedStatement ps = conn.prepareStatement("TRUNCATE game_moves")) {
+                ps.executeUpdate();
+            }
             var statement = "TRUNCATE games";
             try (PreparedStatement ps = conn.prepareStatement(statement)) {
                 ps.executeUpdate();
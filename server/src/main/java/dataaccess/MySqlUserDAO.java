@@ -22,14 +22,17 @@ public class MySqlUserDAO implements UserDAO {
         """
         ;
 
+    private static final String SELECT_USER = "SELECT username, password, email FROM users WHERE username=?";
+    private static final String INSERT_USER = "INSERT INTO users (username, password, email) VALUES (?, ?, ?)";
+
     public MySqlUserDAO() throws DataAccessException {
         configureDatabase(createStatement);
+        registerStatements(SELECT_USER, INSERT_USER);
     }
 
     public UserData getUser(String username) throws DataAccessException {
         try (var conn = getConnection()) {
-            var statement = "SELECT username, password, email FROM users WHERE username=?";
-            try (PreparedStatement ps = conn.prepareStatement(statement)) {
+            try (PreparedStatement ps = conn.prepareStatement(SELECT_USER)) {
                 ps.setString(1, username);
                 try (ResultSet rs = ps.executeQuery()) {
                     if (rs.next()) {
@@ -50,8 +53,7 @@ public class MySqlUserDAO implements UserDAO {
 
     public void createUser(UserData userData) throws DataAccessException {
         try (var conn = getConnection()) {
-            var statement = "INSERT INTO users (username, password, email) VALUES (?, ?, ?)";
-            try (PreparedStatement ps = conn.prepareStatement(statement)) {
+            try (PreparedStatement ps = conn.prepareStatement(INSERT_USER)) {
                 String hashedPassword = BCrypt.hashpw(userData.password(), BCrypt.gensalt());
                 ps.setString(1, userData.username());
                 ps.setString(2, hashedPassword);
@@ -0,0 +1,433 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import model.GameData;
+import model.GameQuery;
+import model.GameSummary;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves games in the background in front of another GameDAO, so making a
+ * move doesn't wait on the database.
+ * <p>
+ * updateGameInDB and recordMove only queue the game. Several updates to the
+ * same game before it is saved become one, keeping every move in order. A
+ * background thread hands everything queued to the wrapped DAO's saveGames
+ * once every flush interval. When a batch fails its games are saved one at
+ * a time, so one bad game can't hold back the rest, and the games that still
+ * fail are queued again. A game that fails MAX_ATTEMPTS saves in a row is
+ * logged and dropped, and its next update saves a full snapshot so the move
+ * log picks up cleanly after the gap. Reads see queued games, so a game
+ * always reads back as it was last updated. Joining a game saves what is
+ * queued for that game first, and clear drops the queue.
+ * <p>
+ * Games still queued when the server stops would be lost, so close() must be
+ * called on shutdown; it saves them before returning.
+ */
+public class WriteBehindGameDAO implements GameDAO, AutoCloseable {
+
+    /**
+     * @param pendingGames games waiting to be saved
+     * @param pendingMoves moves waiting to be saved
+     * @param lagMillis    how long the oldest unsaved update has been waiting,
+     *                     or 0 if there is none
+     * @param flushes      batches saved
+     * @param gamesSaved   games saved across all batches
+     * @param coalesced    updates folded into one already waiting
+     * @param failures     batches that failed, in whole or in part
+     * @param dropped      games given up on after MAX_ATTEMPTS failed saves
+     */
+    public record Metrics(int pendingGames, int pendingMoves, long lagMillis, long flushes, long gamesSaved,
+                          long coalesced, long failures, long dropped) {}
+
+    /**
+     * How many saves in a row a game can fail before its queued updates are dropped
+     */
+    public static final int MAX_ATTEMPTS = 5;
+
+    private static final System.Logger LOGGER = System.getLogger(WriteBehindGameDAO.class.getName());
+
+    private static final class Pending {
+        String whiteUsername;
+        String blackUsername;
+        String gameName;
+        byte[] gameState;
+        boolean gameOver;
+        final List<ChessMove> moves = new ArrayList<>();
+        boolean stateChanged;
+        long since;
+        int failedAttempts;
+
+        Pending(long since) {
+            this.since = since;
+        }
+
+        void update(GameData gameData, byte[] gameState) {
+            this.whiteUsername = gameData.whiteUsername();
+            this.blackUsername = gameData.blackUsername();
+            this.gameName = gameData.gameName();
+            this.gameState = gameState;
+            this.gameOver = gameData.game().isGameOver();
+        }
+
+        // Puts an older pending update's moves ahead of this one's
+        void mergeOlder(Pending older) {
+            moves.addAll(0, older.moves);
+            stateChanged |= older.stateChanged;
+            since = Math.min(since, older.since);
+            failedAttempts = Math.max(failedAttempts, older.failedAttempts);
+        }
+
+        GameData toGameData(int gameID) {
+            return new GameData(gameID, whiteUsername, blackUsername, gameName,
+                    ChessGame.decode(ByteBuffer.wrap(gameState)));
+        }
+
+        GameSummary toGameSummary(int gameID) {
+            return new GameSummary(gameID, whiteUsername, blackUsername, gameName, gameOver);
+        }
+    }
+
+    private final GameDAO gameDAO;
+    private final Runnable onListChanged;
+    private final ScheduledExecutorService flusher;
+
+    // Held while saving, so batches reach the wrapped DAO one at a time and in order
+    private final Object flushLock = new Object();
+
+    private Map<Integer, Pending> pending = new LinkedHashMap<>();
+    private Map<Integer, Pending> inFlight = Map.of();
+    // Games dropped from the queue, whose next save needs a snapshot to get past the missing moves
+    private final Set<Integer> needSnapshot = new HashSet<>();
+    private long flushes;
+    private long gamesSaved;
+    private long coalesced;
+    private long failures;
+    private long dropped;
+    private boolean closed;
+
+    public WriteBehindGameDAO(GameDAO gameDAO, Duration flushInterval) {
+        this(gameDAO, flushInterval, () -> { });
+    }
+
+    /**
+     * @param onListChanged run after a save that changes what listGameSummaries
+     *                      filters on, so anything keyed to the game list (like
+     *                      GET /game's ETag) moves on once the saved rows catch up
+     */
+    public WriteBehindGameDAO(GameDAO gameDAO, Duration flushInterval, Runnable onListChanged) {
+        this.gameDAO = gameDAO;
+        this.onListChanged = onListChanged;
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, flushInterval.toMillis());
+        flusher.scheduleWithFixedDelay(this::backgroundFlush, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void createGame(GameData gameData) throws DataAccessException {
+        gameDAO.createGame(gameData);
+    }
+
+    @Override
+    public GameData getGame(int gameID) throws DataAccessException {
+        synchronized (this) {
+            Pending queued = queued(gameID);
+            if (queued != null) {
+                return queued.toGameData(gameID);
+            }
+        }
+        return gameDAO.getGame(gameID);
+    }
+
+    @Override
+    public List<GameData> listGames() throws DataAccessException {
+        // Taken before reading, so anything saved in the meantime is still covered
+        Map<Integer, GameData> queuedGames = new LinkedHashMap<>();
+        synchronized (this) {
+            inFlight.forEach((gameID, queued) -> queuedGames.put(gameID, queued.toGameData(gameID)));
+            pending.forEach((gameID, queued) -> queuedGames.put(gameID, queued.toGameData(gameID)));
+        }
+
+        List<GameData> games = new ArrayList<>(gameDAO.listGames());
+        if (!queuedGames.isEmpty()) {
+            games.replaceAll(gameData -> queuedGames.getOrDefault(gameData.gameID(), gameData));
+        }
+        return games;
+    }
+
+    @Override
+    public List<GameSummary> listGameSummaries(GameQuery query) throws DataAccessException {
+        // Queued games show as they are now, but which games are listed follows what was saved,
+        // so pages still line up. Only the players and whether the game is over can differ, and
+        // onListChanged runs once those changes are saved.
+        Map<Integer, GameSummary> queuedSummaries = new LinkedHashMap<>();
+        synchronized (this) {
+            inFlight.forEach((gameID, queued) -> queuedSummaries.put(gameID, queued.toGameSummary(gameID)));
+            pending.forEach((gameID, queued) -> queuedSummaries.put(gameID, queued.toGameSummary(gameID)));
+        }
+
+        List<GameSummary> summaries = new ArrayList<>(gameDAO.listGameSummaries(query));
+        if (!queuedSummaries.isEmpty()) {
+            summaries.replaceAll(summary -> queuedSummaries.getOrDefault(summary.gameID(), summary));
+        }
+        return summaries;
+    }
+
+    @Override
+    public void updateGame(String userName, ChessGame.TeamColor playerColor, int gameID) throws DataAccessException {
+        // A queued save would put the old players back, so get it out of the way.
+        // Only this game's, so another game that won't save can't stop the join.
+        flush(gameID);
+        gameDAO.updateGame(userName, playerColor, gameID);
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        synchronized (flushLock) {
+            synchronized (this) {
+                pending.clear();
+                needSnapshot.clear();
+            }
+            gameDAO.clear();
+        }
+    }
+
+    @Override
+    public void updateGameInDB(GameData gameData) throws DataAccessException {
+        enqueue(gameData, null);
+    }
+
+    @Override
+    public void recordMove(GameData gameData, ChessMove move) throws DataAccessException {
+        enqueue(gameData, move);
+    }
+
+    @Override
+    public void saveGames(List<GameUpdate> updates) throws DataAccessException {
+        gameDAO.saveGames(updates);
+    }
+
+    private void enqueue(GameData gameData, ChessMove move) throws DataAccessException {
+        // Encoded now, since the caller may keep changing its game
+        byte[] gameState = gameData.game().encode();
+        synchronized (this) {
+            if (closed) {
+                throw new DataAccessException("Unable to update game: write-behind queue is closed");
+            }
+            Pending queued = pending.get(gameData.gameID());
+            if (queued == null) {
+                queued = new Pending(System.currentTimeMillis());
+                pending.put(gameData.gameID(), queued);
+            }
+            else {
+                coalesced++;
+            }
+            queued.update(gameData, gameState);
+            boolean afterDrop = needSnapshot.remove(gameData.gameID());
+            if (move != null) {
+                queued.moves.add(move);
+            }
+            if (move == null || afterDrop) {
+                queued.stateChanged = true;
+            }
+        }
+    }
+
+    /**
+     * Saves everything queued so far, waiting for any save already underway
+     *
+     * @throws DataAccessException if the wrapped DAO couldn't save some of the
+     * games, which stay queued unless they have run out of attempts
+     */
+    public void flush() throws DataAccessException {
+        save(null);
+    }
+
+    /**
+     * Saves whatever is queued for one game, waiting for any save already underway
+     *
+     * @param gameID the game to save
+     * @throws DataAccessException if the wrapped DAO couldn't save the game,
+     * which stays queued unless it has run out of attempts
+     */
+    public void flush(int gameID) throws DataAccessException {
+        save(gameID);
+    }
+
+    // Saves the queued update for onlyGameID, or everything queued when it is null
+    private void save(Integer onlyGameID) throws DataAccessException {
+        synchronized (flushLock) {
+            Map<Integer, Pending> batch;
+            synchronized (this) {
+                if (onlyGameID == null) {
+                    if (pending.isEmpty()) {
+                        return;
+                    }
+                    batch = pending;
+                    pending = new LinkedHashMap<>();
+                }
+                else {
+                    Pending queued = pending.remove(onlyGameID);
+                    if (queued == null) {
+                        return;
+                    }
+                    batch = new LinkedHashMap<>(Map.of(onlyGameID, queued));
+                }
+                inFlight = batch;
+            }
+
+            List<GameUpdate> updates = new ArrayList<>(batch.size());
+            batch.forEach((gameID, queued) -> updates.add(
+                    new GameUpdate(queued.toGameData(gameID), List.copyOf(queued.moves), queued.stateChanged)));
+
+            Map<Integer, Pending> failed = new LinkedHashMap<>();
+            int saved = 0;
+            boolean listChanged = false;
+            Exception error = null;
+            try {
+                gameDAO.saveGames(updates);
+                saved = updates.size();
+                listChanged = updates.stream().anyMatch(GameUpdate::stateChanged);
+            } catch (DataAccessException | RuntimeException e) {
+                error = e;
+                if (updates.size() == 1) {
+                    failed.putAll(batch);
+                }
+                else {
+                    // One at a time, to find the games that can't be saved
+                    for (GameUpdate update : updates) {
+                        try {
+                            gameDAO.saveGames(List.of(update));
+                            saved++;
+                            listChanged |= update.stateChanged();
+                        } catch (DataAccessException | RuntimeException gameError) {
+                            error = gameError;
+                            int gameID = update.gameData().gameID();
+                            failed.put(gameID, batch.get(gameID));
+                        }
+                    }
+                }
+            }
+
+            synchronized (this) {
+                inFlight = Map.of();
+                gamesSaved += saved;
+                long droppedBefore = dropped;
+                if (failed.isEmpty()) {
+                    flushes++;
+                }
+                else {
+                    failures++;
+                    requeue(failed, error);
+                }
+                // A dropped game reads back as it was last saved, which changes the list too
+                listChanged |= dropped != droppedBefore;
+            }
+            if (listChanged) {
+                onListChanged.run();
+            }
+            if (failed.isEmpty()) {
+                return;
+            }
+            if (error instanceof DataAccessException dataAccessError) {
+                throw dataAccessError;
+            }
+            throw (RuntimeException) error;
+        }
+    }
+
+    // Puts failed games back in the queue ahead of any newer updates, or drops the ones out of attempts
+    private void requeue(Map<Integer, Pending> failed, Exception error) {
+        Map<Integer, Pending> requeued = new LinkedHashMap<>();
+        failed.forEach((gameID, older) -> {
+            older.failedAttempts++;
+            if (older.failedAttempts < MAX_ATTEMPTS) {
+                requeued.put(gameID, older);
+                return;
+            }
+            // Newer updates depend on the dropped moves, so they go too
+            Pending newer = pending.remove(gameID);
+            int lostMoves = older.moves.size() + ((newer != null) ? newer.moves.size() : 0);
+            needSnapshot.add(gameID);
+            dropped++;
+            LOGGER.log(System.Logger.Level.ERROR, "Dropped queued updates to game " + gameID + " after "
+                    + MAX_ATTEMPTS + " failed saves, losing " + lostMoves + " moves: " + error.getMessage());
+        });
+        pending.forEach((gameID, newer) -> {
+            Pending older = requeued.get(gameID);
+            if (older != null) {
+                newer.mergeOlder(older);
+            }
+            requeued.put(gameID, newer);
+        });
+        pending = requeued;
+    }
+
+    /**
+     * Stops the background thread and saves everything still queued. Updates
+     * made after this fail.
+     *
+     * @throws DataAccessException if the last of the queue couldn't be saved
+     */
+    @Override
+    public void close() throws DataAccessException {
+        synchronized (this) {
+            closed = true;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * @return the queue's counters as they are right now
+     */
+    public synchronized Metrics metrics() {
+        int pendingMoves = 0;
+        long oldest = Long.MAX_VALUE;
+        for (Pending queued : pending.values()) {
+            pendingMoves += queued.moves.size();
+            oldest = Math.min(oldest, queued.since);
+        }
+        for (Pending queued : inFlight.values()) {
+            oldest = Math.min(oldest, queued.since);
+        }
+        long lagMillis = (oldest == Long.MAX_VALUE) ? 0 : System.currentTimeMillis() - oldest;
+        return new Metrics(pending.size(), pendingMoves, lagMillis, flushes, gamesSaved, coalesced, failures,
+                dropped);
+    }
+
+    private Pending queued(int gameID) {
+        Pending queued = pending.get(gameID);
+        return (queued != null) ? queued : inFlight.get(gameID);
+    }
+
+    private void backgroundFlush() {
+        try {
+            flush();
+        } catch (DataAccessException | RuntimeException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "Unable to save queued games, will retry: " + e.getMessage());
+        }
+    }
+}
@@ -1,11 +1,11 @@
 package handler;
 
-import com.google.gson.Gson;
 import dataaccess.BadRequestException;
 import dataaccess.DataAccessException;
 import dataaccess.UnauthorizedException;
 import io.javalin.http.Context;
 import result.CreateGameRequest;
+import serialization.Serializer;
 import service.CreateGameService;
 
 public class CreateGameHandler {
@@ -18,11 +18,11 @@ public class CreateGameHandler {
     public void createGame(Context ctx) {
         try {
             String authToken = ctx.header("authorization");
-            var body = new Gson().fromJson(ctx.body(), CreateGameRequest.class);
+            var body = Serializer.fromJson(ctx.body(), CreateGameRequest.class);
             var req = new CreateGameRequest(authToken, body.gameName());
             var result = createGameService.createGame(req);
             ctx.status(200);
-            ctx.json(new Gson().toJson(result));
+            ctx.json(Serializer.toJson(result));
         }
         catch (BadRequestException e){
             ctx.status(400);
@@ -1,12 +1,12 @@
 package handler;
 
-import com.google.gson.Gson;
 import dataaccess.BadRequestException;
 import dataaccess.DataAccessException;
 import dataaccess.GameTakenException;
 import dataaccess.UnauthorizedException;
 import io.javalin.http.Context;
 import result.JoinGameRequest;
+import serialization.Serializer;
 import service.JoinGameService;
 
 public class JoinGameHandler {
@@ -19,11 +19,11 @@ public class JoinGameHandler {
     public void updateGame(Context ctx) {
         try {
             String authToken = ctx.header("authorization");
-            var body = new Gson().fromJson(ctx.body(), JoinGameRequest.class);
+            var body = Serializer.fromJson(ctx.body(), JoinGameRequest.class);
             var req = new JoinGameRequest(authToken, body.gameID(), body.playerColor());
             var result = joinGameService.updateGame(req);
             ctx.status(200);
-            ctx.json(new Gson().toJson(result));
+            ctx.json(Serializer.toJson(result));
         }
         catch (BadRequestException e){
             ctx.status(400);
@@ -1,10 +1,12 @@
 package handler;
 
-import com.google.gson.Gson;
+import dataaccess.BadRequestException;
 import dataaccess.DataAccessException;
 import dataaccess.UnauthorizedException;
 import io.javalin.http.Context;
+import model.GameQuery;
 import result.ListGamesRequest;
+import serialization.Serializer;
 import service.ListGamesService;
 
 public class ListGamesHandler {
@@ -17,10 +19,21 @@ public class ListGamesHandler {
     public void listGames(Context ctx) {
         try {
             String authToken = ctx.header("authorization");
-            var req = new ListGamesRequest(authToken);
-            var result = listGamesService.listGames(req);
+            var req = new ListGamesRequest(authToken, parseQuery(ctx));
+
+            var page = listGamesService.listGames(req, ctx.header("If-None-Match"));
+            ctx.header("ETag", page.eTag());
+            if (page.result() == null) {
+                ctx.status(304);
+                return;
+            }
+
             ctx.status(200);
-            ctx.json(new Gson().toJson(result));
+            ctx.json(Serializer.toJson(page.result()));
+        }
+        catch (BadRequestException e) {
+            ctx.status(400);
+            ctx.result("{\"message\": \"Error: " + e.getMessage() + "\"}");
         }
         catch (UnauthorizedException e) {
             ctx.status(401);
@@ -31,4 +44,35 @@ public class ListGamesHandler {
             ctx.result("{\"message\": \"Error: " + e.getMessage() + "\"}");
         }
     }
+
+    // Reads ?after=&limit=&open=&player=&status= into a query, leaving out what isn't given.
+    // Without a limit the page holds GameQuery.DEFAULT_LIMIT games, and next is set if there are more.
+    private static GameQuery parseQuery(Context ctx) throws BadRequestException {
+        String after = ctx.queryParam("after");
+        String limit = ctx.queryParam("limit");
+        String open = ctx.queryParam("open");
+        String status = ctx.queryParam("status");
+
+        Boolean finished = null;
+        if ("finished".equals(status)) {
+            finished = true;
+        }
+        else if ("active".equals(status)) {
+            finished = false;
+        }
+        else if (status != null) {
+            throw new BadRequestException("status must be finished or active");
+        }
+
+        try {
+            return new GameQuery(
+                    (after != null) ? Integer.parseInt(after) : 0,
+                    (limit != null) ? Integer.parseInt(limit) : GameQuery.DEFAULT_LIMIT,
+                    Boolean.parseBoolean(open),
+                    ctx.queryParam("player"),
+                    finished);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("after and limit must be numbers");
+        }
+    }
 }
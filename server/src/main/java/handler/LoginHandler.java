@@ -1,11 +1,11 @@
 package handler;
 
-import com.google.gson.Gson;
 import dataaccess.BadRequestException;
 import dataaccess.DataAccessException;
 import dataaccess.UnauthorizedException;
 import io.javalin.http.Context;
 import result.LoginRequest;
+import serialization.Serializer;
 import service.LoginService;
 
 public class LoginHandler {
@@ -17,10 +17,10 @@ public class LoginHandler {
 
     public void login(Context ctx) {
         try {
-            var req = new Gson().fromJson(ctx.body(), LoginRequest.class);
+            var req = Serializer.fromJson(ctx.body(), LoginRequest.class);
             var result = loginService.login(req);
             ctx.status(200);
-            ctx.json(new Gson().toJson(result));
+            ctx.json(Serializer.toJson(result));
         }
         catch (BadRequestException e) {
             ctx.status(400);
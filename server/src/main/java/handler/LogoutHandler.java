@@ -1,10 +1,10 @@
 package handler;
 
-import com.google.gson.Gson;
 import dataaccess.DataAccessException;
 import dataaccess.UnauthorizedException;
 import io.javalin.http.Context;
 import result.LogoutRequest;
+import serialization.Serializer;
 import service.LogoutService;
 
 public class LogoutHandler {
@@ -20,7 +20,7 @@ public class LogoutHandler {
             var req = new LogoutRequest(authToken);
             var result = logoutService.logout(req);
             ctx.status(200);
-            ctx.json(new Gson().toJson(result));
+            ctx.json(Serializer.toJson(result));
         }
         catch (UnauthorizedException e) {
             ctx.status(401);
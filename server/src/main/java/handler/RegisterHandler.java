@@ -1,11 +1,11 @@
 package handler;
 
-import com.google.gson.Gson;
 import dataaccess.AlreadyTakenException;
 import dataaccess.BadRequestException;
 import dataaccess.DataAccessException;
 import io.javalin.http.Context;
 import result.RegisterRequest;
+import serialization.Serializer;
 import service.RegisterService;
 
 public class RegisterHandler {
@@ -17,10 +17,10 @@ public class RegisterHandler {
 
     public void register(Context ctx) {
         try {
-            var req = new Gson().fromJson(ctx.body(), RegisterRequest.class);
+            var req = Serializer.fromJson(ctx.body(), RegisterRequest.class);
             var result = registerService.register(req);
             ctx.status(200);
-            ctx.json(new Gson().toJson(result));
+            ctx.json(Serializer.toJson(result));
         }
         catch (BadRequestException e){
             ctx.status(400);
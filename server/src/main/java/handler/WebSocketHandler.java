@@ -2,7 +2,6 @@ package handler;
 
 import chess.ChessGame;
 import chess.InvalidMoveException;
-import com.google.gson.Gson;
 import dataaccess.AuthDAO;
 import dataaccess.DataAccessException;
 import dataaccess.GameDAO;
@@ -12,7 +11,9 @@ import io.javalin.websocket.WsMessageContext;
 import model.AuthData;
 import model.GameData;
 import org.eclipse.jetty.websocket.api.Session;
+import serialization.Serializer;
 import server.ConnectionManager;
+import service.LobbyVersion;
 import websocket.commands.MakeMoveCommand;
 import websocket.commands.UserGameCommand;
 import websocket.messages.ErrorMessage;
@@ -25,23 +26,26 @@ public class WebSocketHandler {
     private final AuthDAO authDAO;
     private final GameDAO gameDAO;
     private final ConnectionManager connectionManager;
+    private final LobbyVersion lobbyVersion;
 
-    public WebSocketHandler(AuthDAO authDAO, GameDAO gameDAO, ConnectionManager connectionManager) {
+    public WebSocketHandler(AuthDAO authDAO, GameDAO gameDAO, ConnectionManager connectionManager,
+                            LobbyVersion lobbyVersion) {
         this.authDAO = authDAO;
         this.gameDAO = gameDAO;
         this.connectionManager = connectionManager;
+        this.lobbyVersion = lobbyVersion;
     }
 
     record AuthGameBundle(AuthData authData, GameData gameData) {};
 
     public void onMessage(WsMessageContext wsMessageContext) {
-        var base = new Gson().fromJson(wsMessageContext.message(), UserGameCommand.class);
+        var command = Serializer.fromJson(wsMessageContext.message(), UserGameCommand.class);
 
-        switch (base.getCommandType()) {
-            case CONNECT -> handleConnect(new Gson().fromJson(wsMessageContext.message(), UserGameCommand.class), wsMessageContext);
-            case MAKE_MOVE -> handleMakeMove(new Gson().fromJson(wsMessageContext.message(), MakeMoveCommand.class), wsMessageContext);
-            case LEAVE -> handleLeave(new Gson().fromJson(wsMessageContext.message(), UserGameCommand.class), wsMessageContext);
-            case RESIGN -> handleResign(new Gson().fromJson(wsMessageContext.message(), UserGameCommand.class), wsMessageContext);
+        switch (command.getCommandType()) {
+            case CONNECT -> handleConnect(command, wsMessageContext);
+            case MAKE_MOVE -> handleMakeMove((MakeMoveCommand) command, wsMessageContext);
+            case LEAVE -> handleLeave(command, wsMessageContext);
+            case RESIGN -> handleResign(command, wsMessageContext);
         }
 
     }
@@ -62,7 +66,7 @@ public class WebSocketHandler {
 
             connectionManager.add(userGameCommand.getGameID(), wsMessageContext.session);
 
-            String messageToSend = new Gson().toJson(new LoadGameMessage(bundle.gameData));
+            String messageToSend = Serializer.toJson(new LoadGameMessage(bundle.gameData));
             connectionManager.sendToOne(wsMessageContext.session, messageToSend);
 
             String notification;
@@ -77,7 +81,7 @@ public class WebSocketHandler {
                 notification = bundle.authData.username() + " joined as observer";
             }
 
-            messageToSend = new Gson().toJson(new NotificationMessage(notification));
+            messageToSend = Serializer.toJson(new NotificationMessage(notification));
             connectionManager.broadcastToAllExcept(userGameCommand.getGameID(), wsMessageContext.session, messageToSend);
         }
         catch (Exception e) {
@@ -93,14 +97,14 @@ public class WebSocketHandler {
             }
 
             if (bundle.gameData.game().isGameOver()) {
-                String errorJson = new Gson().toJson(new ErrorMessage("Error: game is already over"));
+                String errorJson = Serializer.toJson(new ErrorMessage("Error: game is already over"));
                 connectionManager.sendToOne(wsMessageContext.session, errorJson);
                 return;
             }
 
             if (!bundle.authData.username().equals(bundle.gameData.whiteUsername())
                     && !bundle.authData.username().equals(bundle.gameData.blackUsername())) {
-                String errorJson = new Gson().toJson(new ErrorMessage("Error: observers can't make moves"));
+                String errorJson = Serializer.toJson(new ErrorMessage("Error: observers can't make moves"));
                 connectionManager.sendToOne(wsMessageContext.session, errorJson);
                 return;
             }
@@ -109,7 +113,7 @@ public class WebSocketHandler {
                     && bundle.gameData.game().getTeamTurn() != ChessGame.TeamColor.WHITE
                     || bundle.authData.username().equals(bundle.gameData.blackUsername())
                     && bundle.gameData.game().getTeamTurn() != ChessGame.TeamColor.BLACK) {
-                String errorJson = new Gson().toJson(new ErrorMessage("Error: not " + bundle.authData.username() + "'s turn"));
+                String errorJson = Serializer.toJson(new ErrorMessage("Error: not " + bundle.authData.username() + "'s turn"));
                 connectionManager.sendToOne(wsMessageContext.session, errorJson);
                 return;
             }
@@ -117,15 +121,15 @@ public class WebSocketHandler {
             try {
                 bundle.gameData.game().makeMove(makeMoveCommand.getMove());
             } catch (InvalidMoveException e) {
-                String errorJson = new Gson().toJson(new ErrorMessage("Error: " + e.getMessage()));
+                String errorJson = Serializer.toJson(new ErrorMessage("Error: " + e.getMessage()));
                 connectionManager.sendToOne(wsMessageContext.session, errorJson);
                 return;
             }
 
-            String messageToSend = new Gson().toJson(new LoadGameMessage(bundle.gameData));
+            String messageToSend = Serializer.toJson(new LoadGameMessage(bundle.gameData));
             connectionManager.broadcastToAll(bundle.gameData.gameID(), messageToSend);
 
-            messageToSend = new Gson().toJson(new NotificationMessage(bundle.authData.username() + " moved " + makeMoveCommand.getMove().toString()));
+            messageToSend = Serializer.toJson(new NotificationMessage(bundle.authData.username() + " moved " + makeMoveCommand.getMove().toString()));
             connectionManager.broadcastToAllExcept(bundle.gameData.gameID(), wsMessageContext.session, messageToSend);
 
             String opponentUsername;
@@ -137,22 +141,29 @@ public class WebSocketHandler {
                 opponentUsername = bundle.gameData.blackUsername();
             }
 
-            if (bundle.gameData.game().isInCheckmate(bundle.gameData.game().getTeamTurn())) {
-                messageToSend = new Gson().toJson(new NotificationMessage(opponentUsername + " is in checkmate"));
+            // The status is worked out once for the new position
+            ChessGame.GameStatus status = bundle.gameData.game().getGameStatus();
+
+            if (status == ChessGame.GameStatus.CHECKMATE) {
+                messageToSend = Serializer.toJson(new NotificationMessage(opponentUsername + " is in checkmate"));
                 connectionManager.broadcastToAll(bundle.gameData.gameID(), messageToSend);
-                bundle.gameData.game().setGameOver(true);
             }
-            else if (bundle.gameData.game().isInStalemate(bundle.gameData.game().getTeamTurn())) {
-                messageToSend = new Gson().toJson(new NotificationMessage("Stalemate"));
+            else if (status == ChessGame.GameStatus.STALEMATE) {
+                messageToSend = Serializer.toJson(new NotificationMessage("Stalemate"));
                 connectionManager.broadcastToAll(bundle.gameData.gameID(), messageToSend);
-                bundle.gameData.game().setGameOver(true);
             }
-            else if (bundle.gameData.game().isInCheck(bundle.gameData.game().getTeamTurn())) {
-                messageToSend = new Gson().toJson(new NotificationMessage(opponentUsername + " is in check"));
+            else if (status == ChessGame.GameStatus.CHECK) {
+                messageToSend = Serializer.toJson(new NotificationMessage(opponentUsername + " is in check"));
                 connectionManager.broadcastToAll(bundle.gameData.gameID(), messageToSend);
             }
 
-            gameDAO.updateGameInDB(bundle.gameData);
+            gameDAO.recordMove(bundle.gameData, makeMoveCommand.getMove());
+
+            if (status.isGameOver()) {
+                bundle.gameData.game().setGameOver(true);
+                gameDAO.updateGameInDB(bundle.gameData);
+                lobbyVersion.changed();
+            }
         }
         catch (Exception e) {
             sendError(wsMessageContext.session, e);
@@ -171,17 +182,19 @@ public class WebSocketHandler {
                         new GameData(bundle.gameData.gameID(), null,
                                 bundle.gameData.blackUsername(), bundle.gameData.gameName(), bundle.gameData.game())
                 );
+                lobbyVersion.changed();
             }
             else if (bundle.authData.username().equals(bundle.gameData.blackUsername())) {
                 gameDAO.updateGameInDB(
                         new GameData(bundle.gameData.gameID(), bundle.gameData.whiteUsername(), null,
                                 bundle.gameData.gameName(), bundle.gameData.game())
                 );
+                lobbyVersion.changed();
             }
 
             connectionManager.remove(wsMessageContext.session);
 
-            String messageToSend = new Gson().toJson(new NotificationMessage(bundle.authData.username() + " left the game"));
+            String messageToSend = Serializer.toJson(new NotificationMessage(bundle.authData.username() + " left the game"));
             connectionManager.broadcastToAllExcept(userGameCommand.getGameID(), wsMessageContext.session, messageToSend);
 
         }
@@ -198,22 +211,23 @@ public class WebSocketHandler {
             }
 
             if (bundle.gameData.game().isGameOver()) {
-                String errorJson = new Gson().toJson(new ErrorMessage("Error: game is already over"));
+                String errorJson = Serializer.toJson(new ErrorMessage("Error: game is already over"));
                 connectionManager.sendToOne(wsMessageContext.session, errorJson);
                 return;
             }
 
             if (!bundle.authData.username().equals(bundle.gameData.whiteUsername())
                     && !bundle.authData.username().equals(bundle.gameData.blackUsername())) {
-                String errorJson = new Gson().toJson(new ErrorMessage("Error: observers can't resign"));
+                String errorJson = Serializer.toJson(new ErrorMessage("Error: observers can't resign"));
                 connectionManager.sendToOne(wsMessageContext.session, errorJson);
                 return;
             }
 
             bundle.gameData.game().setGameOver(true);
             gameDAO.updateGameInDB(bundle.gameData);
+            lobbyVersion.changed();
 
-            String messageToSend = new Gson().toJson(
+            String messageToSend = Serializer.toJson(
                     new NotificationMessage(bundle.authData.username() + " resigned from game: " + bundle.gameData.gameName())
             );
             connectionManager.broadcastToAll(bundle.gameData.gameID(), messageToSend);
@@ -227,7 +241,7 @@ public class WebSocketHandler {
     }
 
     private void sendError(Session session, Exception message) {
-        String errorJson = new Gson().toJson(new ErrorMessage("Error: " + message));
+        String errorJson = Serializer.toJson(new ErrorMessage("Error: " + message));
         try {
             connectionManager.sendToOne(session, errorJson);
         } catch (IOException ex) {
@@ -241,13 +255,13 @@ public class WebSocketHandler {
             GameData gameData = gameDAO.getGame(userGameCommand.getGameID());
 
             if (authData == null) {
-                String errorJson = new Gson().toJson(new ErrorMessage("Error: unauthorized"));
+                String errorJson = Serializer.toJson(new ErrorMessage("Error: unauthorized"));
                 connectionManager.sendToOne(wsMessageContext.session, errorJson);
                 return null;
             }
 
             if (gameData == null) {
-                String errorJson = new Gson().toJson(new ErrorMessage("Error: no game found"));
+                String errorJson = Serializer.toJson(new ErrorMessage("Error: no game found"));
                 connectionManager.sendToOne(wsMessageContext.session, errorJson);
                 return null;
             }
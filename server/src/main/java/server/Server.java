@@ -5,27 +5,48 @@ import handler.*;
 import io.javalin.*;
 import service.*;
 
+import java.time.Duration;
+
 public class Server {
 
+    // Nearly every request looks up its auth token, so keep the live ones in memory
+    private static final int AUTH_CACHE_SIZE = 10_000;
+    private static final Duration AUTH_CACHE_TTL = Duration.ofMinutes(5);
+
+    // Games being played stay in memory between moves
+    private static final int GAME_CACHE_SIZE = 1_000;
+    private static final Duration GAME_CACHE_IDLE_TIMEOUT = Duration.ofMinutes(30);
+
     private final Javalin javalin;
 
     private UserDAO userDAO;
     private AuthDAO authDAO;
     private GameDAO gameDAO;
+    private WriteBehindGameDAO writeBehindGameDAO;
 
 
     public Server() {
+        // Bumped by everything that changes the game list, for GET /game's ETag
+        LobbyVersion lobbyVersion = new LobbyVersion();
+
         try {
             userDAO = new MySqlUserDAO();
-            authDAO = new MySqlAuthDAO();
+            authDAO = new CachingAuthDAO(new MySqlAuthDAO(), AUTH_CACHE_SIZE, AUTH_CACHE_TTL);
             gameDAO = new MySqlGameDAO();
+            long writeBehindMillis = DatabaseManager.writeBehindMillis();
+            if (writeBehindMillis > 0) {
+                writeBehindGameDAO = new WriteBehindGameDAO(gameDAO, Duration.ofMillis(writeBehindMillis),
+                        lobbyVersion::changed);
+                gameDAO = writeBehindGameDAO;
+            }
+            gameDAO = new CachingGameDAO(gameDAO, GAME_CACHE_SIZE, GAME_CACHE_IDLE_TIMEOUT);
         } catch (DataAccessException e) {
             throw new RuntimeException("Failed to initialize DAOs: " + e.getMessage());
         }
 
         // Websocket endpoint
         ConnectionManager connectionManager = new ConnectionManager();
-        WebSocketHandler wsHandler = new WebSocketHandler(authDAO, gameDAO, connectionManager);
+        WebSocketHandler wsHandler = new WebSocketHandler(authDAO, gameDAO, connectionManager, lobbyVersion);
         javalin = Javalin.create(config -> {
             config.staticFiles.add("web");
             config.router.mount(router -> {
@@ -41,7 +62,7 @@ public class Server {
         });
 
         // Clear endpoint
-        ClearService clearService = new ClearService(authDAO, gameDAO, userDAO);
+        ClearService clearService = new ClearService(authDAO, gameDAO, userDAO, lobbyVersion);
         ClearHandler clearHandler = new ClearHandler(clearService);
         javalin.delete("/db", clearHandler::clear);
 
@@ -61,17 +82,17 @@ public class Server {
         javalin.delete("/session", logoutHandler::logout);
 
         // List games endpoint
-        ListGamesService listGamesService = new ListGamesService(gameDAO, authDAO);
+        ListGamesService listGamesService = new ListGamesService(gameDAO, authDAO, lobbyVersion);
         ListGamesHandler listGamesHandler = new ListGamesHandler(listGamesService);
         javalin.get("/game", listGamesHandler::listGames);
 
         // Create game endpoint
-        CreateGameService createGameService = new CreateGameService(authDAO, gameDAO);
+        CreateGameService createGameService = new CreateGameService(authDAO, gameDAO, lobbyVersion);
         CreateGameHandler createGameHandler = new CreateGameHandler(createGameService);
         javalin.post("/game", createGameHandler::createGame);
 
         // Update game endpoint
-        JoinGameService joinGameService = new JoinGameService(authDAO, gameDAO);
+        JoinGameService joinGameService = new JoinGameService(authDAO, gameDAO, lobbyVersion);
         JoinGameHandler joinGameHandler = new JoinGameHandler(joinGameService);
         javalin.put("/game", joinGameHandler::updateGame);
 
@@ -84,5 +105,12 @@ public class Server {
 
     public void stop() {
         javalin.stop();
+        if (writeBehindGameDAO != null) {
+            try {
+                writeBehindGameDAO.close();
+            } catch (DataAccessException e) {
+                throw new RuntimeException("Failed to save queued games: " + e.getMessage());
+            }
+        }
     }
 }
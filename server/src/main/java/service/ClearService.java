@@ -10,16 +10,19 @@ public class ClearService {
     private AuthDAO authDAO;
     private GameDAO gameDAO;
     private UserDAO userDAO;
+    private LobbyVersion lobbyVersion;
 
-    public ClearService(AuthDAO authDAO, GameDAO gameDAO, UserDAO userDAO) {
+    public ClearService(AuthDAO authDAO, GameDAO gameDAO, UserDAO userDAO, LobbyVersion lobbyVersion) {
         this.authDAO = authDAO;
         this.gameDAO = gameDAO;
         this.userDAO = userDAO;
+        this.lobbyVersion = lobbyVersion;
     }
 
     public ClearResult clear() throws DataAccessException {
         authDAO.clear();
         gameDAO.clear();
+        lobbyVersion.changed();
         userDAO.clear();
         return new ClearResult(null);
     }
@@ -12,10 +12,12 @@ import java.util.UUID;
 public class CreateGameService {
     private AuthDAO authDAO;
     private GameDAO gameDAO;
+    private LobbyVersion lobbyVersion;
 
-    public CreateGameService(AuthDAO authDAO, GameDAO gameDAO) {
+    public CreateGameService(AuthDAO authDAO, GameDAO gameDAO, LobbyVersion lobbyVersion) {
         this.authDAO = authDAO;
         this.gameDAO = gameDAO;
+        this.lobbyVersion = lobbyVersion;
     }
 
     public CreateGameResult createGame(CreateGameRequest createGameRequest) throws DataAccessException {
@@ -38,6 +40,7 @@ public class CreateGameService {
         ChessGame game = new ChessGame();
         GameData newGame = new GameData(gameID, null, null, createGameRequest.gameName(), game);
         gameDAO.createGame(newGame);
+        lobbyVersion.changed();
 
         return new CreateGameResult(gameID);
     }
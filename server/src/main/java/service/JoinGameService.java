@@ -10,10 +10,12 @@ import result.JoinGameResult;
 public class JoinGameService {
     private AuthDAO authDAO;
     private GameDAO gameDAO;
+    private LobbyVersion lobbyVersion;
 
-    public JoinGameService(AuthDAO authDAO, GameDAO gameDAO) {
+    public JoinGameService(AuthDAO authDAO, GameDAO gameDAO, LobbyVersion lobbyVersion) {
         this.authDAO = authDAO;
         this.gameDAO = gameDAO;
+        this.lobbyVersion = lobbyVersion;
     }
 
     public JoinGameResult updateGame(JoinGameRequest joinGameRequest) throws DataAccessException {
@@ -46,6 +48,7 @@ public class JoinGameService {
         }
 
         gameDAO.updateGame(userToken.username(), joinGameRequest.playerColor(), game.gameID());
+        lobbyVersion.changed();
 
         return new JoinGameResult();
     }
@@ -2,29 +2,85 @@ package service;
 
 import dataaccess.*;
 import model.AuthData;
+import model.GameQuery;
+import model.GameSummary;
 import result.ListGamesRequest;
 import result.ListGamesResult;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class ListGamesService {
     private GameDAO gameDAO;
     private AuthDAO authDAO;
+    private LobbyVersion lobbyVersion;
 
-    public ListGamesService(GameDAO gameDAO, AuthDAO authDAO) {
+    public ListGamesService(GameDAO gameDAO, AuthDAO authDAO, LobbyVersion lobbyVersion) {
         this.gameDAO = gameDAO;
         this.authDAO = authDAO;
+        this.lobbyVersion = lobbyVersion;
     }
 
+    /**
+     * A page of games along with the ETag naming the game list it came from
+     *
+     * @param eTag   the game list's ETag when the page was read
+     * @param result the page, or null if the client already has it
+     */
+    public record Page(String eTag, ListGamesResult result) {}
+
     public ListGamesResult listGames(ListGamesRequest listGamesRequest) throws DataAccessException {
+        return readPage(checkRequest(listGamesRequest));
+    }
+
+    /**
+     * Lists a page of games for a client that may already have it. The token
+     * and query are checked first, so a bad request fails the same way whether
+     * or not the client's copy is current.
+     *
+     * @param ifNoneMatch an If-None-Match header naming copies the client has, or null
+     * @return the current ETag, with no games if the header names it
+     */
+    public Page listGames(ListGamesRequest listGamesRequest, String ifNoneMatch) throws DataAccessException {
+        GameQuery query = checkRequest(listGamesRequest);
+
+        // Taken before the games are read, so a change made meanwhile only costs the client a refetch
+        String eTag = lobbyVersion.eTag();
+        if (LobbyVersion.matches(ifNoneMatch, eTag)) {
+            return new Page(eTag, null);
+        }
+        return new Page(eTag, readPage(query));
+    }
+
+    private GameQuery checkRequest(ListGamesRequest listGamesRequest) throws DataAccessException {
+        authorize(listGamesRequest.authToken());
 
-        if (listGamesRequest.authToken() == null) {
+        GameQuery query = (listGamesRequest.query() != null) ? listGamesRequest.query() : GameQuery.firstPage();
+        if (query.after() < 0 || query.limit() < 1 || query.limit() > GameQuery.MAX_LIMIT) {
+            throw new BadRequestException("Invalid page");
+        }
+        return query;
+    }
+
+    private ListGamesResult readPage(GameQuery query) throws DataAccessException {
+        // One game past the page says whether there is another page
+        List<GameSummary> games = gameDAO.listGameSummaries(query.withLimit(query.limit() + 1));
+        Integer next = null;
+        if (games.size() > query.limit()) {
+            games = new ArrayList<>(games.subList(0, query.limit()));
+            next = games.get(games.size() - 1).gameID();
+        }
+        return new ListGamesResult(games, next);
+    }
+
+    private void authorize(String authToken) throws DataAccessException {
+        if (authToken == null) {
             throw new UnauthorizedException("Missing token");
         }
 
-        AuthData userToken = authDAO.getAuth(listGamesRequest.authToken());
+        AuthData userToken = authDAO.getAuth(authToken);
         if (userToken == null) {
             throw new UnauthorizedException("Incorrect token");
         }
-
-        return new ListGamesResult(gameDAO.listGames());
     }
 }
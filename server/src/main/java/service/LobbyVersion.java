@@ -0,0 +1,57 @@
+package service;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts changes to the game list, so a client that already has the list can
+ * be told it hasn't changed without the games being read again. Anything that
+ * adds a game, fills or frees a seat, or ends a game calls changed(). When
+ * games are saved in the background, the write-behind queue calls it again
+ * once those changes are saved, since filtered lists follow the saved rows.
+ * <p>
+ * The count starts over when the server restarts, so each ETag also carries
+ * an id picked when the server started. A client holding an ETag from before
+ * the restart never matches.
+ */
+public class LobbyVersion {
+
+    private final String instanceID = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Records that the game list has changed
+     */
+    public void changed() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * @return an ETag naming the game list as it is right now
+     */
+    public String eTag() {
+        return "\"" + instanceID + "-" + version.get() + "\"";
+    }
+
+    /**
+     * @param ifNoneMatch a request's If-None-Match header, which may be null
+     *                    or list several ETags
+     * @param eTag        the ETag to look for
+     * @return whether the header names the ETag
+     */
+    public static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
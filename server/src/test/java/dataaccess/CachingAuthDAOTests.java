@@ -0,0 +1,98 @@
+package dataaccess;
+
+import model.AuthData;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+public class CachingAuthDAOTests {
+
+    private final AuthData testAuth = new AuthData("token", "username");
+    private MemoryAuthDAO memoryAuthDAO;
+    private long now;
+    private CachingAuthDAO authDAO;
+
+    @BeforeEach
+    public void setUp() {
+        memoryAuthDAO = new MemoryAuthDAO();
+        now = 0;
+        authDAO = new CachingAuthDAO(memoryAuthDAO, 2, Duration.ofSeconds(10), () -> now);
+    }
+
+    @Test
+    public void getAuthPositive() throws DataAccessException {
+        memoryAuthDAO.createAuth(testAuth);
+
+        Assertions.assertEquals(testAuth, authDAO.getAuth("token"));
+        Assertions.assertEquals(testAuth, authDAO.getAuth("token"));
+
+        Assertions.assertEquals(1, authDAO.metrics().misses());
+        Assertions.assertEquals(1, authDAO.metrics().hits());
+    }
+
+    @Test
+    public void getAuthNegative() throws DataAccessException {
+        Assertions.assertNull(authDAO.getAuth("token"));
+        Assertions.assertNull(authDAO.getAuth("token"));
+
+        Assertions.assertEquals(2, authDAO.metrics().misses());
+        Assertions.assertEquals(0, authDAO.metrics().size());
+    }
+
+    @Test
+    public void createAuthIsCached() throws DataAccessException {
+        authDAO.createAuth(testAuth);
+
+        Assertions.assertEquals(testAuth, memoryAuthDAO.getAuth("token"));
+        Assertions.assertEquals(testAuth, authDAO.getAuth("token"));
+        Assertions.assertEquals(1, authDAO.metrics().hits());
+    }
+
+    @Test
+    public void deleteAuthInvalidates() throws DataAccessException {
+        authDAO.createAuth(testAuth);
+        authDAO.deleteAuth("token");
+
+        Assertions.assertNull(authDAO.getAuth("token"));
+        Assertions.assertNull(memoryAuthDAO.getAuth("token"));
+    }
+
+    @Test
+    public void clearInvalidates() throws DataAccessException {
+        authDAO.createAuth(testAuth);
+        authDAO.clear();
+
+        Assertions.assertNull(authDAO.getAuth("token"));
+        Assertions.assertEquals(0, authDAO.metrics().size());
+    }
+
+    @Test
+    public void entriesExpire() throws DataAccessException {
+        authDAO.createAuth(testAuth);
+        memoryAuthDAO.deleteAuth("token");
+
+        now += Duration.ofSeconds(9).toNanos();
+        Assertions.assertEquals(testAuth, authDAO.getAuth("token"));
+
+        now += Duration.ofSeconds(2).toNanos();
+        Assertions.assertNull(authDAO.getAuth("token"));
+        Assertions.assertEquals(1, authDAO.metrics().evictions());
+    }
+
+    @Test
+    public void sizeIsBounded() throws DataAccessException {
+        authDAO.createAuth(new AuthData("a", "username"));
+        authDAO.createAuth(new AuthData("b", "username"));
+        authDAO.getAuth("a");
+        authDAO.createAuth(new AuthData("c", "username"));
+
+        Assertions.assertEquals(2, authDAO.metrics().size());
+        Assertions.assertEquals(1, authDAO.metrics().evictions());
+
+        // "b" was least recently used, so it went to the wrapped DAO
+        authDAO.getAuth("b");
+        Assertions.assertEquals(1, authDAO.metrics().misses());
+    }
+}
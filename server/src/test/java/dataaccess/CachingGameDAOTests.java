@@ -0,0 +1,210 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import model.GameData;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class CachingGameDAOTests {
+
+    private MemoryGameDAO memoryGameDAO;
+    private long now;
+    private CachingGameDAO gameDAO;
+
+    @BeforeEach
+    public void setUp() {
+        memoryGameDAO = new MemoryGameDAO();
+        now = 0;
+        gameDAO = new CachingGameDAO(memoryGameDAO, 2, Duration.ofMinutes(10), () -> now);
+    }
+
+    @Test
+    public void getGamePositive() throws DataAccessException {
+        memoryGameDAO.createGame(new GameData(1, "white", null, "game", new ChessGame()));
+
+        Assertions.assertEquals("white", gameDAO.getGame(1).whiteUsername());
+        Assertions.assertEquals(new ChessGame(), gameDAO.getGame(1).game());
+
+        Assertions.assertEquals(1, gameDAO.metrics().misses());
+        Assertions.assertEquals(1, gameDAO.metrics().hits());
+    }
+
+    @Test
+    public void getGameNegative() throws DataAccessException {
+        Assertions.assertNull(gameDAO.getGame(1));
+        Assertions.assertNull(gameDAO.getGame(1));
+
+        Assertions.assertEquals(2, gameDAO.metrics().misses());
+        Assertions.assertEquals(0, gameDAO.metrics().size());
+    }
+
+    @Test
+    public void changingReturnedGameLeavesCache() throws DataAccessException, InvalidMoveException {
+        gameDAO.createGame(new GameData(1, null, null, "game", new ChessGame()));
+
+        gameDAO.getGame(1).game().makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+
+        Assertions.assertEquals(new ChessGame(), gameDAO.getGame(1).game());
+    }
+
+    @Test
+    public void updateGameInDBWritesThrough() throws DataAccessException, InvalidMoveException {
+        gameDAO.createGame(new GameData(1, "white", "black", "game", new ChessGame()));
+
+        GameData gameData = gameDAO.getGame(1);
+        gameData.game().makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        gameDAO.updateGameInDB(gameData);
+
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, memoryGameDAO.getGame(1).game().getTeamTurn());
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, gameDAO.getGame(1).game().getTeamTurn());
+        Assertions.assertEquals(1, gameDAO.metrics().writes());
+    }
+
+    @Test
+    public void recordMoveWritesThrough() throws DataAccessException, InvalidMoveException {
+        gameDAO.createGame(new GameData(1, "white", "black", "game", new ChessGame()));
+
+        GameData gameData = gameDAO.getGame(1);
+        ChessMove move = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        gameData.game().makeMove(move);
+        gameDAO.recordMove(gameData, move);
+
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, memoryGameDAO.getGame(1).game().getTeamTurn());
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, gameDAO.getGame(1).game().getTeamTurn());
+    }
+
+    @Test
+    public void saveGamesWaitsForWriteLock() throws Exception {
+        CountDownLatch updating = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean saved = new AtomicBoolean();
+        MemoryGameDAO slowGameDAO = new MemoryGameDAO() {
+            @Override
+            public void updateGameInDB(GameData gameData) throws DataAccessException {
+                updating.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.updateGameInDB(gameData);
+            }
+
+            @Override
+            public void saveGames(List<GameUpdate> updates) throws DataAccessException {
+                saved.set(true);
+                super.saveGames(updates);
+            }
+        };
+        slowGameDAO.createGame(new GameData(1, "white", "black", "game", new ChessGame()));
+        CachingGameDAO cachingGameDAO = new CachingGameDAO(slowGameDAO, 2, Duration.ofMinutes(10), () -> now);
+
+        ChessGame older = new ChessGame();
+        older.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        Thread update = new Thread(() -> {
+            try {
+                cachingGameDAO.updateGameInDB(new GameData(1, "white", "black", "game", older));
+            } catch (DataAccessException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        update.start();
+        updating.await();
+
+        ChessGame newer = new ChessGame();
+        newer.makeMove(new ChessMove(new ChessPosition(2, 4), new ChessPosition(4, 4), null));
+        Thread save = new Thread(() -> {
+            try {
+                cachingGameDAO.saveGames(List.of(
+                        new GameUpdate(new GameData(1, "white", "black", "game", newer), List.of(), true)));
+            } catch (DataAccessException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        save.start();
+
+        // The batch has to wait for the update already writing the same game
+        save.join(200);
+        Assertions.assertFalse(saved.get());
+
+        release.countDown();
+        update.join();
+        save.join();
+        Assertions.assertEquals(newer, cachingGameDAO.getGame(1).game());
+        Assertions.assertEquals(newer, slowGameDAO.getGame(1).game());
+    }
+
+    @Test
+    public void unchangedUpdateIsSkipped() throws DataAccessException {
+        gameDAO.createGame(new GameData(1, "white", "black", "game", new ChessGame()));
+
+        gameDAO.updateGameInDB(gameDAO.getGame(1));
+        Assertions.assertEquals(1, gameDAO.metrics().skippedWrites());
+        Assertions.assertEquals(0, gameDAO.metrics().writes());
+
+        // Ending the game leaves the board alone but still has to be saved
+        GameData gameData = gameDAO.getGame(1);
+        gameData.game().setGameOver(true);
+        gameDAO.updateGameInDB(gameData);
+        Assertions.assertEquals(1, gameDAO.metrics().writes());
+        Assertions.assertTrue(gameDAO.getGame(1).game().isGameOver());
+    }
+
+    @Test
+    public void updateGameInvalidates() throws DataAccessException {
+        gameDAO.createGame(new GameData(1, null, null, "game", new ChessGame()));
+
+        gameDAO.updateGame("white", ChessGame.TeamColor.WHITE, 1);
+
+        Assertions.assertEquals("white", gameDAO.getGame(1).whiteUsername());
+    }
+
+    @Test
+    public void clearInvalidates() throws DataAccessException {
+        gameDAO.createGame(new GameData(1, null, null, "game", new ChessGame()));
+        gameDAO.clear();
+
+        Assertions.assertNull(gameDAO.getGame(1));
+        Assertions.assertEquals(0, gameDAO.metrics().size());
+    }
+
+    @Test
+    public void idleGamesAreDropped() throws DataAccessException {
+        gameDAO.createGame(new GameData(1, null, null, "game", new ChessGame()));
+
+        now += Duration.ofMinutes(9).toNanos();
+        gameDAO.getGame(1);
+        now += Duration.ofMinutes(9).toNanos();
+        gameDAO.getGame(1);
+        Assertions.assertEquals(2, gameDAO.metrics().hits());
+
+        now += Duration.ofMinutes(11).toNanos();
+        gameDAO.getGame(1);
+        Assertions.assertEquals(1, gameDAO.metrics().misses());
+        Assertions.assertEquals(1, gameDAO.metrics().evictions());
+    }
+
+    @Test
+    public void sizeIsBounded() throws DataAccessException {
+        gameDAO.createGame(new GameData(1, null, null, "one", new ChessGame()));
+        gameDAO.createGame(new GameData(2, null, null, "two", new ChessGame()));
+        gameDAO.getGame(1);
+        gameDAO.createGame(new GameData(3, null, null, "three", new ChessGame()));
+
+        Assertions.assertEquals(2, gameDAO.metrics().size());
+        Assertions.assertEquals(1, gameDAO.metrics().evictions());
+
+        // Game 2 was least recently used, so it went to the wrapped DAO
+        Assertions.assertEquals("two", gameDAO.getGame(2).gameName());
+        Assertions.assertEquals(1, gameDAO.metrics().misses());
+    }
+}
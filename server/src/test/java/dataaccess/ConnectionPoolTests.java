@@ -0,0 +1,163 @@
+package dataaccess;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConnectionPoolTests {
+
+    private final AtomicInteger opened = new AtomicInteger();
+    private ConnectionPool pool;
+
+    @AfterEach
+    public void closePool() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    // A stand-in for a MySQL connection that only knows whether it has been closed and its session settings
+    private Connection fakeConnection() {
+        opened.incrementAndGet();
+        boolean[] closed = {false};
+        boolean[] autoCommit = {true};
+        boolean[] readOnly = {false};
+        int[] isolation = {Connection.TRANSACTION_REPEATABLE_READ};
+        String[] catalog = {"chess"};
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "close" -> {
+                        closed[0] = true;
+                        yield null;
+                    }
+                    case "isClosed" -> closed[0];
+                    case "isValid" -> !closed[0];
+                    case "getAutoCommit" -> autoCommit[0];
+                    case "setAutoCommit" -> {
+                        autoCommit[0] = (Boolean) args[0];
+                        yield null;
+                    }
+                    case "isReadOnly" -> readOnly[0];
+                    case "setReadOnly" -> {
+                        readOnly[0] = (Boolean) args[0];
+                        yield null;
+                    }
+                    case "getTransactionIsolation" -> isolation[0];
+                    case "setTransactionIsolation" -> {
+                        isolation[0] = (Integer) args[0];
+                        yield null;
+                    }
+                    case "getCatalog" -> catalog[0];
+                    case "setCatalog" -> {
+                        catalog[0] = (String) args[0];
+                        yield null;
+                    }
+                    default -> null;
+                });
+    }
+
+    private ConnectionPool newPool(int maxSize) {
+        pool = new ConnectionPool(this::fakeConnection,
+                new ConnectionPool.Settings(0, maxSize, 60000, 100, null, 0));
+        return pool;
+    }
+
+    @Test
+    public void reusesConnections() throws SQLException {
+        newPool(2);
+
+        try (Connection conn = pool.getConnection()) {
+            Assertions.assertFalse(conn.isClosed());
+            Assertions.assertEquals(1, pool.metrics().active());
+        }
+        try (Connection conn = pool.getConnection()) {
+            Assertions.assertFalse(conn.isClosed());
+        }
+
+        Assertions.assertEquals(1, opened.get());
+        ConnectionPool.Metrics metrics = pool.metrics();
+        Assertions.assertEquals(1, metrics.total());
+        Assertions.assertEquals(1, metrics.idle());
+        Assertions.assertEquals(0, metrics.active());
+        Assertions.assertEquals(2, metrics.borrowed());
+    }
+
+    @Test
+    public void returnedConnectionIsClosed() throws SQLException {
+        newPool(1);
+
+        Connection conn = pool.getConnection();
+        conn.close();
+        conn.close();
+
+        Assertions.assertTrue(conn.isClosed());
+        Assertions.assertThrows(SQLException.class, () -> conn.createStatement());
+        Assertions.assertEquals(1, pool.metrics().idle());
+    }
+
+    @Test
+    public void returnedConnectionIsReset() throws SQLException {
+        newPool(1);
+
+        try (Connection conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+            conn.setReadOnly(true);
+            conn.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+            conn.setCatalog("other");
+        }
+
+        try (Connection conn = pool.getConnection()) {
+            Assertions.assertTrue(conn.getAutoCommit());
+            Assertions.assertFalse(conn.isReadOnly());
+            Assertions.assertEquals(Connection.TRANSACTION_REPEATABLE_READ, conn.getTransactionIsolation());
+            Assertions.assertEquals("chess", conn.getCatalog());
+        }
+        Assertions.assertEquals(1, opened.get());
+    }
+
+    @Test
+    public void boundedPoolTimesOut() throws SQLException {
+        newPool(1);
+
+        try (Connection conn = pool.getConnection()) {
+            Assertions.assertThrows(SQLException.class, () -> pool.getConnection());
+        }
+
+        Assertions.assertEquals(1, pool.metrics().timeouts());
+        Assertions.assertEquals(1, opened.get());
+    }
+
+    @Test
+    public void failedOpenFreesSlot() {
+        pool = new ConnectionPool(() -> {
+            throw new SQLException("no database");
+        }, new ConnectionPool.Settings(0, 1, 60000, 100, null, 0));
+
+        Assertions.assertThrows(SQLException.class, () -> pool.getConnection());
+        Assertions.assertThrows(SQLException.class, () -> pool.getConnection());
+        Assertions.assertEquals(0, pool.metrics().total());
+        Assertions.assertEquals(0, pool.metrics().timeouts());
+    }
+
+    @Test
+    public void settingsFromProperties() {
+        Properties props = new Properties();
+        props.setProperty("db.pool.maxSize", "4");
+        props.setProperty("db.pool.validationQuery", "SELECT 1");
+
+        ConnectionPool.Settings settings = ConnectionPool.Settings.fromProperties(props);
+
+        Assertions.assertEquals(2, settings.minSize());
+        Assertions.assertEquals(4, settings.maxSize());
+        Assertions.assertEquals("SELECT 1", settings.validationQuery());
+
+        props.setProperty("db.pool.minSize", "5");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ConnectionPool.Settings.fromProperties(props));
+    }
+}
@@ -1,8 +1,13 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
 import model.AuthData;
 import model.GameData;
+import model.GameQuery;
+import model.GameSummary;
 import model.UserData;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -92,6 +97,27 @@ public class MySqlGameTests {
         Assertions.assertEquals(0, result.size());
     }
 
+    @Test
+    public void listGameSummariesPositive() throws DataAccessException {
+        userDAO.createUser(whiteTest);
+        userDAO.createUser(blackTest);
+        gameDAO.createGame(testGame);
+        List<GameSummary> result = gameDAO.listGameSummaries(GameQuery.firstPage());
+
+        Assertions.assertEquals(1, result.size());
+        Assertions.assertEquals(GameSummary.of(testGame), result.get(0));
+        Assertions.assertEquals(1, gameDAO.listGameSummaries(new GameQuery(0, 10, false, "blackTest", false)).size());
+        Assertions.assertEquals(0, gameDAO.listGameSummaries(new GameQuery(0, 10, true, null, null)).size());
+        Assertions.assertEquals(0, gameDAO.listGameSummaries(GameQuery.firstPage().startingAfter(1)).size());
+    }
+
+    @Test
+    public void listGameSummariesNegative() throws DataAccessException {
+        List<GameSummary> result = gameDAO.listGameSummaries(GameQuery.firstPage());
+
+        Assertions.assertEquals(0, result.size());
+    }
+
     @Test
     public void updateGamePositive() throws DataAccessException {
         GameData game = new GameData(1, "whiteTest", null, "testGame", new ChessGame());
@@ -118,6 +144,72 @@ public class MySqlGameTests {
         });
     }
 
+    @Test
+    public void updateGameStatePositive() throws DataAccessException, InvalidMoveException {
+        userDAO.createUser(whiteTest);
+        userDAO.createUser(blackTest);
+        gameDAO.createGame(testGame);
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        gameDAO.updateGameInDB(new GameData(1, "whiteTest", "blackTest", "testGame", game));
+        var result = gameDAO.getGame(1);
+
+        Assertions.assertNotNull(result);
+        Assertions.assertEquals(game, result.game());
+        Assertions.assertEquals(game.toFen(), result.game().toFen());
+    }
+
+    @Test
+    public void recordMovePositive() throws DataAccessException, InvalidMoveException {
+        userDAO.createUser(whiteTest);
+        userDAO.createUser(blackTest);
+        gameDAO.createGame(testGame);
+
+        // Knights hopping out and back, so the log passes a snapshot and has moves after it
+        ChessGame game = new ChessGame();
+        List<ChessMove> moves = List.of(
+                new ChessMove(new ChessPosition(1, 2), new ChessPosition(3, 3), null),
+                new ChessMove(new ChessPosition(8, 2), new ChessPosition(6, 3), null),
+                new ChessMove(new ChessPosition(3, 3), new ChessPosition(1, 2), null),
+                new ChessMove(new ChessPosition(6, 3), new ChessPosition(8, 2), null));
+        for (int i = 0; i < MySqlGameDAO.SNAPSHOT_INTERVAL + 3; i++) {
+            ChessMove move = moves.get(i % moves.size());
+            game.makeMove(move);
+            gameDAO.recordMove(new GameData(1, "whiteTest", "blackTest", "testGame", game), move);
+        }
+        var result = gameDAO.getGame(1);
+
+        Assertions.assertEquals(game.toFen(), result.game().toFen());
+        Assertions.assertEquals(game.toFen(), gameDAO.listGames().get(0).game().toFen());
+        Assertions.assertEquals(MySqlGameDAO.SNAPSHOT_INTERVAL + 3, gameDAO.listMoves(1).size());
+        Assertions.assertEquals(moves.get(0), gameDAO.listMoves(1).get(0));
+    }
+
+    @Test
+    public void recordMoveNegative() throws DataAccessException {
+        Assertions.assertEquals(0, gameDAO.listMoves(1).size());
+    }
+
+    @Test
+    public void recordMoveStaleNegative() throws DataAccessException, InvalidMoveException {
+        userDAO.createUser(whiteTest);
+        userDAO.createUser(blackTest);
+        gameDAO.createGame(testGame);
+
+        ChessMove e4 = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        ChessMove d4 = new ChessMove(new ChessPosition(2, 4), new ChessPosition(4, 4), null);
+        ChessGame game = new ChessGame();
+        game.makeMove(e4);
+        gameDAO.recordMove(new GameData(1, "whiteTest", "blackTest", "testGame", game), e4);
+
+        // A second copy of the starting position can't log another first move
+        ChessGame stale = new ChessGame();
+        stale.makeMove(d4);
+        Assertions.assertThrows(DataAccessException.class,
+                () -> gameDAO.recordMove(new GameData(1, "whiteTest", "blackTest", "testGame", stale), d4));
+        Assertions.assertEquals(List.of(e4), gameDAO.listMoves(1));
+    }
+
     @Test
     public void clearPositive() throws DataAccessException {
         userDAO.createUser(whiteTest);
@@ -0,0 +1,226 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import model.GameData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+public class WriteBehindGameDAOTests {
+
+    private final ChessMove e4 = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+    private final ChessMove e5 = new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null);
+
+    private final List<List<GameUpdate>> batches = new ArrayList<>();
+    private boolean failSaves;
+    private int badGameID;
+    private int listChanges;
+    private MemoryGameDAO memoryGameDAO;
+    private WriteBehindGameDAO gameDAO;
+
+    @BeforeEach
+    public void setUp() throws DataAccessException {
+        memoryGameDAO = new MemoryGameDAO() {
+            @Override
+            public void saveGames(List<GameUpdate> updates) throws DataAccessException {
+                if (failSaves) {
+                    throw new DataAccessException("Unable to save games: database is down");
+                }
+                if (updates.stream().anyMatch(update -> update.gameData().gameID() == badGameID)) {
+                    throw new DataAccessException("Unable to save games: bad game");
+                }
+                batches.add(updates);
+                super.saveGames(updates);
+            }
+        };
+        memoryGameDAO.createGame(new GameData(1, "white", "black", "game", new ChessGame()));
+        memoryGameDAO.createGame(new GameData(2, "white", "black", "other", new ChessGame()));
+
+        // Long enough that only the tests flush
+        gameDAO = new WriteBehindGameDAO(memoryGameDAO, Duration.ofHours(1), () -> listChanges++);
+    }
+
+    @AfterEach
+    public void tearDown() throws DataAccessException {
+        failSaves = false;
+        badGameID = 0;
+        gameDAO.close();
+    }
+
+    @Test
+    public void recordMoveIsQueued() throws DataAccessException, InvalidMoveException {
+        // A game of its own, since the memory DAO hands out the game it stores
+        GameData gameData = new GameData(1, "white", "black", "game", new ChessGame());
+        gameData.game().makeMove(e4);
+        gameDAO.recordMove(gameData, e4);
+
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, memoryGameDAO.getGame(1).game().getTeamTurn());
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, gameDAO.getGame(1).game().getTeamTurn());
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, gameDAO.listGames().get(0).game().getTeamTurn());
+        Assertions.assertEquals(1, gameDAO.metrics().pendingGames());
+
+        gameDAO.flush();
+
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, memoryGameDAO.getGame(1).game().getTeamTurn());
+        Assertions.assertEquals(0, gameDAO.metrics().pendingGames());
+        Assertions.assertEquals(0, gameDAO.metrics().lagMillis());
+    }
+
+    @Test
+    public void updatesAreCoalesced() throws DataAccessException, InvalidMoveException {
+        GameData gameData = new GameData(1, "white", "black", "game", new ChessGame());
+        gameData.game().makeMove(e4);
+        gameDAO.recordMove(gameData, e4);
+        gameData.game().makeMove(e5);
+        gameDAO.recordMove(gameData, e5);
+        gameData.game().setGameOver(true);
+        gameDAO.updateGameInDB(gameData);
+
+        Assertions.assertEquals(2, gameDAO.metrics().coalesced());
+        Assertions.assertEquals(2, gameDAO.metrics().pendingMoves());
+
+        gameDAO.flush();
+
+        Assertions.assertEquals(1, batches.size());
+        GameUpdate update = batches.get(0).get(0);
+        Assertions.assertEquals(List.of(e4, e5), update.moves());
+        Assertions.assertTrue(update.stateChanged());
+        Assertions.assertTrue(memoryGameDAO.getGame(1).game().isGameOver());
+    }
+
+    @Test
+    public void failedFlushIsRetried() throws DataAccessException, InvalidMoveException {
+        GameData gameData = new GameData(1, "white", "black", "game", new ChessGame());
+        gameData.game().makeMove(e4);
+        gameDAO.recordMove(gameData, e4);
+
+        failSaves = true;
+        Assertions.assertThrows(DataAccessException.class, () -> gameDAO.flush());
+        Assertions.assertEquals(1, gameDAO.metrics().failures());
+
+        gameData.game().makeMove(e5);
+        gameDAO.recordMove(gameData, e5);
+        failSaves = false;
+        gameDAO.flush();
+
+        Assertions.assertEquals(List.of(e4, e5), batches.get(0).get(0).moves());
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, memoryGameDAO.getGame(1).game().getTeamTurn());
+    }
+
+    @Test
+    public void badGameDoesNotBlockOthers() throws DataAccessException, InvalidMoveException {
+        GameData good = new GameData(1, "white", "black", "game", new ChessGame());
+        good.game().makeMove(e4);
+        gameDAO.recordMove(good, e4);
+        GameData bad = new GameData(2, "white", "black", "other", new ChessGame());
+        bad.game().makeMove(e4);
+        gameDAO.recordMove(bad, e4);
+
+        badGameID = 2;
+        Assertions.assertThrows(DataAccessException.class, () -> gameDAO.flush());
+
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, memoryGameDAO.getGame(1).game().getTeamTurn());
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, memoryGameDAO.getGame(2).game().getTeamTurn());
+        Assertions.assertEquals(1, gameDAO.metrics().pendingGames());
+        Assertions.assertEquals(1, gameDAO.metrics().gamesSaved());
+    }
+
+    @Test
+    public void failingGameIsDropped() throws DataAccessException, InvalidMoveException {
+        GameData gameData = new GameData(2, "white", "black", "other", new ChessGame());
+        gameData.game().makeMove(e4);
+        gameDAO.recordMove(gameData, e4);
+
+        badGameID = 2;
+        for (int attempt = 0; attempt < WriteBehindGameDAO.MAX_ATTEMPTS; attempt++) {
+            Assertions.assertThrows(DataAccessException.class, () -> gameDAO.flush());
+        }
+
+        Assertions.assertEquals(0, gameDAO.metrics().pendingGames());
+        Assertions.assertEquals(1, gameDAO.metrics().dropped());
+        Assertions.assertEquals(0, gameDAO.metrics().lagMillis());
+
+        // The next save writes the whole game, since the move log is missing e4
+        badGameID = 0;
+        gameData.game().makeMove(e5);
+        gameDAO.recordMove(gameData, e5);
+        gameDAO.flush();
+
+        GameUpdate update = batches.get(0).get(0);
+        Assertions.assertEquals(List.of(e5), update.moves());
+        Assertions.assertTrue(update.stateChanged());
+    }
+
+    @Test
+    public void savedStateChangeUpdatesList() throws DataAccessException, InvalidMoveException {
+        GameData gameData = new GameData(1, "white", "black", "game", new ChessGame());
+        gameData.game().makeMove(e4);
+        gameDAO.recordMove(gameData, e4);
+        gameDAO.flush();
+
+        // A move alone doesn't change anything the list filters on
+        Assertions.assertEquals(0, listChanges);
+
+        gameData.game().setGameOver(true);
+        gameDAO.updateGameInDB(gameData);
+        Assertions.assertEquals(0, listChanges);
+
+        gameDAO.flush();
+        Assertions.assertEquals(1, listChanges);
+    }
+
+    @Test
+    public void closeFlushes() throws DataAccessException, InvalidMoveException {
+        GameData gameData = new GameData(1, "white", "black", "game", new ChessGame());
+        gameData.game().makeMove(e4);
+        gameDAO.recordMove(gameData, e4);
+
+        gameDAO.close();
+
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, memoryGameDAO.getGame(1).game().getTeamTurn());
+        Assertions.assertThrows(DataAccessException.class, () -> gameDAO.recordMove(gameData, e5));
+    }
+
+    @Test
+    public void updateGameFlushesFirst() throws DataAccessException, InvalidMoveException {
+        GameData gameData = new GameData(1, "white", "black", "game", new ChessGame());
+        gameData.game().makeMove(e4);
+        gameDAO.updateGameInDB(new GameData(1, null, "black", "game", gameData.game()));
+
+        gameDAO.updateGame("newWhite", ChessGame.TeamColor.WHITE, 1);
+
+        Assertions.assertEquals("newWhite", gameDAO.getGame(1).whiteUsername());
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, gameDAO.getGame(1).game().getTeamTurn());
+    }
+
+    @Test
+    public void updateGameIgnoresOtherGames() throws DataAccessException, InvalidMoveException {
+        GameData bad = new GameData(2, "white", "black", "other", new ChessGame());
+        bad.game().makeMove(e4);
+        gameDAO.recordMove(bad, e4);
+        badGameID = 2;
+
+        gameDAO.updateGameInDB(new GameData(1, null, "black", "game", new ChessGame()));
+        gameDAO.updateGame("newWhite", ChessGame.TeamColor.WHITE, 1);
+
+        Assertions.assertEquals("newWhite", memoryGameDAO.getGame(1).whiteUsername());
+        Assertions.assertEquals(1, gameDAO.metrics().pendingGames());
+    }
+
+    @Test
+    public void clearDropsQueue() throws DataAccessException {
+        gameDAO.updateGameInDB(new GameData(1, "white", "black", "game", new ChessGame()));
+        gameDAO.clear();
+
+        Assertions.assertNull(gameDAO.getGame(1));
+        Assertions.assertEquals(0, gameDAO.metrics().pendingGames());
+    }
+}
@@ -11,7 +11,7 @@ public class ClearServiceTests {
         AuthDAO authDAO = new MemoryAuthDAO();
         GameDAO gameDAO = new MemoryGameDAO();
         UserDAO userDAO = new MemoryUserDAO();
-        ClearService service = new ClearService(authDAO, gameDAO, userDAO);
+        ClearService service = new ClearService(authDAO, gameDAO, userDAO, new LobbyVersion());
 
         Assertions.assertDoesNotThrow(service::clear);
     }
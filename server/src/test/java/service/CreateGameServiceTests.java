@@ -22,7 +22,7 @@ public class CreateGameServiceTests {
         var loginRequest = new LoginRequest("username", "password");
         var loginResult = loginService.login(loginRequest);
 
-        CreateGameService createGameService = new CreateGameService(authDAO, gameDAO);
+        CreateGameService createGameService = new CreateGameService(authDAO, gameDAO, new LobbyVersion());
         var createGameRequest = new CreateGameRequest(loginResult.authToken(), "gameName");
         var createGameResult = createGameService.createGame(createGameRequest);
 
@@ -42,7 +42,7 @@ public class CreateGameServiceTests {
         var loginRequest = new LoginRequest("username", "password");
         var loginResult = loginService.login(loginRequest);
 
-        CreateGameService createGameService = new CreateGameService(authDAO, gameDAO);
+        CreateGameService createGameService = new CreateGameService(authDAO, gameDAO, new LobbyVersion());
         var createGameRequest = new CreateGameRequest(loginResult.authToken(), null);
 
         Assertions.assertThrows(BadRequestException.class, () -> createGameService.createGame(createGameRequest));
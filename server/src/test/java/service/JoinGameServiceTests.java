@@ -24,11 +24,11 @@ public class JoinGameServiceTests {
         var loginRequest = new LoginRequest("username", "password");
         var loginResult = loginService.login(loginRequest);
 
-        CreateGameService createGameService = new CreateGameService(authDAO, gameDAO);
+        CreateGameService createGameService = new CreateGameService(authDAO, gameDAO, new LobbyVersion());
         var createGameRequest = new CreateGameRequest(loginResult.authToken(), "gameName");
         var createGameResult = createGameService.createGame(createGameRequest);
 
-        JoinGameService joinGameService = new JoinGameService(authDAO, gameDAO);
+        JoinGameService joinGameService = new JoinGameService(authDAO, gameDAO, new LobbyVersion());
         var joinGameRequest = new JoinGameRequest(loginResult.authToken(), createGameResult.gameID(), ChessGame.TeamColor.WHITE);
         var joinGameResult = joinGameService.updateGame(joinGameRequest);
 
@@ -48,11 +48,11 @@ public class JoinGameServiceTests {
         var loginRequest = new LoginRequest("username", "password");
         var loginResult = loginService.login(loginRequest);
 
-        CreateGameService createGameService = new CreateGameService(authDAO, gameDAO);
+        CreateGameService createGameService = new CreateGameService(authDAO, gameDAO, new LobbyVersion());
         var createGameRequest = new CreateGameRequest(loginResult.authToken(), "gameName");
         var createGameResult = createGameService.createGame(createGameRequest);
 
-        JoinGameService joinGameService = new JoinGameService(authDAO, gameDAO);
+        JoinGameService joinGameService = new JoinGameService(authDAO, gameDAO, new LobbyVersion());
         var joinGameRequest = new JoinGameRequest(loginResult.authToken(), createGameResult.gameID(), null);
 
         Assertions.assertThrows(BadRequestException.class, () -> joinGameService.updateGame(joinGameRequest));
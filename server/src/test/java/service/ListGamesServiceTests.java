@@ -1,9 +1,13 @@
 package service;
 
+import chess.ChessGame;
 import dataaccess.*;
+import model.GameData;
+import model.GameQuery;
 import model.UserData;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import result.CreateGameRequest;
 import result.ListGamesRequest;
 import result.LoginRequest;
 import result.LogoutRequest;
@@ -23,13 +27,37 @@ public class ListGamesServiceTests {
         var loginRequest = new LoginRequest("username", "password");
         var loginResult = loginService.login(loginRequest);
 
-        ListGamesService listGamesService = new ListGamesService(gameDAO, authDAO);
-        var listGamesRequest = new ListGamesRequest(loginResult.authToken());
+        ListGamesService listGamesService = new ListGamesService(gameDAO, authDAO, new LobbyVersion());
+        var listGamesRequest = new ListGamesRequest(loginResult.authToken(), GameQuery.firstPage());
         var listGamesResult = listGamesService.listGames(listGamesRequest);
 
         Assertions.assertEquals(0, listGamesResult.games().size());
     }
 
+    @Test
+    public void defaultLimitPositive() throws DataAccessException {
+        AuthDAO authDAO = new MemoryAuthDAO();
+        GameDAO gameDAO = new MemoryGameDAO();
+        UserDAO userDAO = new MemoryUserDAO();
+        userDAO.createUser(new UserData("username", "password", "email"));
+        var loginResult = new LoginService(authDAO, userDAO).login(new LoginRequest("username", "password"));
+        for (int gameID = 1; gameID <= GameQuery.DEFAULT_LIMIT + 1; gameID++) {
+            gameDAO.createGame(new GameData(gameID, null, null, "game" + gameID, new ChessGame()));
+        }
+
+        // Without a limit only the first DEFAULT_LIMIT games come back, and next says there are more
+        ListGamesService listGamesService = new ListGamesService(gameDAO, authDAO, new LobbyVersion());
+        var firstPage = listGamesService.listGames(new ListGamesRequest(loginResult.authToken(), null));
+
+        Assertions.assertEquals(GameQuery.DEFAULT_LIMIT, firstPage.games().size());
+        Assertions.assertEquals(GameQuery.DEFAULT_LIMIT, firstPage.next().intValue());
+
+        var lastPage = listGamesService.listGames(new ListGamesRequest(loginResult.authToken(),
+                GameQuery.firstPage().startingAfter(firstPage.next())));
+        Assertions.assertEquals(1, lastPage.games().size());
+        Assertions.assertNull(lastPage.next());
+    }
+
     @Test
     public void listGamesNegative() throws DataAccessException {
         AuthDAO authDAO = new MemoryAuthDAO();
@@ -47,9 +75,149 @@ public class ListGamesServiceTests {
         var logoutRequest = new LogoutRequest(loginResult.authToken());
         logoutService.logout(logoutRequest);
 
-        ListGamesService listGamesService = new ListGamesService(gameDAO, authDAO);
-        var listGamesRequest = new ListGamesRequest(loginResult.authToken());
+        ListGamesService listGamesService = new ListGamesService(gameDAO, authDAO, new LobbyVersion());
+        var listGamesRequest = new ListGamesRequest(loginResult.authToken(), GameQuery.firstPage());
 
         Assertions.assertThrows(UnauthorizedException.class, () -> listGamesService.listGames(listGamesRequest));
     }
+
+    @Test
+    public void listGamesPagesPositive() throws DataAccessException {
+        AuthDAO authDAO = new MemoryAuthDAO();
+        GameDAO gameDAO = new MemoryGameDAO();
+        UserDAO userDAO = new MemoryUserDAO();
+
+        UserData userData = new UserData("username", "password", "email");
+        userDAO.createUser(userData);
+        for (int gameID = 1; gameID <= 3; gameID++) {
+            gameDAO.createGame(new GameData(gameID, null, null, "game" + gameID, new ChessGame()));
+        }
+
+        LoginService loginService = new LoginService(authDAO, userDAO);
+        var loginRequest = new LoginRequest("username", "password");
+        var loginResult = loginService.login(loginRequest);
+
+        ListGamesService listGamesService = new ListGamesService(gameDAO, authDAO, new LobbyVersion());
+        GameQuery query = GameQuery.firstPage().withLimit(2);
+        var firstPage = listGamesService.listGames(new ListGamesRequest(loginResult.authToken(), query));
+
+        Assertions.assertEquals(2, firstPage.games().size());
+        Assertions.assertEquals(2, firstPage.next().intValue());
+
+        var secondPage = listGamesService.listGames(
+                new ListGamesRequest(loginResult.authToken(), query.startingAfter(firstPage.next())));
+
+        Assertions.assertEquals(1, secondPage.games().size());
+        Assertions.assertEquals(3, secondPage.games().iterator().next().gameID());
+        Assertions.assertNull(secondPage.next());
+    }
+
+    @Test
+    public void listGamesFiltersPositive() throws DataAccessException {
+        AuthDAO authDAO = new MemoryAuthDAO();
+        GameDAO gameDAO = new MemoryGameDAO();
+        UserDAO userDAO = new MemoryUserDAO();
+
+        UserData userData = new UserData("username", "password", "email");
+        userDAO.createUser(userData);
+        ChessGame finishedGame = new ChessGame();
+        finishedGame.setGameOver(true);
+        gameDAO.createGame(new GameData(1, "username", "other", "full", new ChessGame()));
+        gameDAO.createGame(new GameData(2, "username", null, "open", new ChessGame()));
+        gameDAO.createGame(new GameData(3, "other", null, "finished", finishedGame));
+
+        LoginService loginService = new LoginService(authDAO, userDAO);
+        var loginRequest = new LoginRequest("username", "password");
+        var loginResult = loginService.login(loginRequest);
+
+        ListGamesService listGamesService = new ListGamesService(gameDAO, authDAO, new LobbyVersion());
+        var openMine = listGamesService.listGames(new ListGamesRequest(loginResult.authToken(),
+                new GameQuery(0, GameQuery.DEFAULT_LIMIT, true, "username", null)));
+        var finished = listGamesService.listGames(new ListGamesRequest(loginResult.authToken(),
+                new GameQuery(0, GameQuery.DEFAULT_LIMIT, false, null, true)));
+
+        Assertions.assertEquals(1, openMine.games().size());
+        Assertions.assertEquals(2, openMine.games().iterator().next().gameID());
+        Assertions.assertEquals(1, finished.games().size());
+        Assertions.assertEquals(3, finished.games().iterator().next().gameID());
+    }
+
+    @Test
+    public void listGamesPagesNegative() throws DataAccessException {
+        AuthDAO authDAO = new MemoryAuthDAO();
+        GameDAO gameDAO = new MemoryGameDAO();
+        UserDAO userDAO = new MemoryUserDAO();
+
+        UserData userData = new UserData("username", "password", "email");
+        userDAO.createUser(userData);
+
+        LoginService loginService = new LoginService(authDAO, userDAO);
+        var loginRequest = new LoginRequest("username", "password");
+        var loginResult = loginService.login(loginRequest);
+
+        ListGamesService listGamesService = new ListGamesService(gameDAO, authDAO, new LobbyVersion());
+        var listGamesRequest = new ListGamesRequest(loginResult.authToken(),
+                GameQuery.firstPage().withLimit(GameQuery.MAX_LIMIT + 1));
+
+        Assertions.assertThrows(BadRequestException.class, () -> listGamesService.listGames(listGamesRequest));
+    }
+
+    @Test
+    public void eTagPositive() throws DataAccessException {
+        AuthDAO authDAO = new MemoryAuthDAO();
+        GameDAO gameDAO = new MemoryGameDAO();
+        UserDAO userDAO = new MemoryUserDAO();
+        LobbyVersion lobbyVersion = new LobbyVersion();
+
+        UserData userData = new UserData("username", "password", "email");
+        userDAO.createUser(userData);
+
+        LoginService loginService = new LoginService(authDAO, userDAO);
+        var loginRequest = new LoginRequest("username", "password");
+        var loginResult = loginService.login(loginRequest);
+
+        ListGamesService listGamesService = new ListGamesService(gameDAO, authDAO, lobbyVersion);
+        var listGamesRequest = new ListGamesRequest(loginResult.authToken(), GameQuery.firstPage());
+        var first = listGamesService.listGames(listGamesRequest, null);
+        String before = first.eTag();
+        var unchanged = listGamesService.listGames(listGamesRequest, before);
+
+        Assertions.assertNotNull(first.result());
+        Assertions.assertEquals(before, unchanged.eTag());
+        Assertions.assertNull(unchanged.result());
+        Assertions.assertTrue(LobbyVersion.matches("W/\"other\", " + before, before));
+
+        CreateGameService createGameService = new CreateGameService(authDAO, gameDAO, lobbyVersion);
+        createGameService.createGame(new CreateGameRequest(loginResult.authToken(), "game"));
+
+        var changed = listGamesService.listGames(listGamesRequest, before);
+        Assertions.assertNotEquals(before, changed.eTag());
+        Assertions.assertEquals(1, changed.result().games().size());
+    }
+
+    @Test
+    public void eTagNegative() {
+        AuthDAO authDAO = new MemoryAuthDAO();
+        GameDAO gameDAO = new MemoryGameDAO();
+
+        ListGamesService listGamesService = new ListGamesService(gameDAO, authDAO, new LobbyVersion());
+        var listGamesRequest = new ListGamesRequest("nonexistent", GameQuery.firstPage());
+
+        Assertions.assertThrows(UnauthorizedException.class, () -> listGamesService.listGames(listGamesRequest, "*"));
+    }
+
+    @Test
+    public void eTagBadPageNegative() throws DataAccessException {
+        AuthDAO authDAO = new MemoryAuthDAO();
+        GameDAO gameDAO = new MemoryGameDAO();
+        UserDAO userDAO = new MemoryUserDAO();
+        userDAO.createUser(new UserData("username", "password", "email"));
+        var loginResult = new LoginService(authDAO, userDAO).login(new LoginRequest("username", "password"));
+
+        // A bad page is still a bad request when the client's copy is current
+        ListGamesService listGamesService = new ListGamesService(gameDAO, authDAO, new LobbyVersion());
+        var listGamesRequest = new ListGamesRequest(loginResult.authToken(), GameQuery.firstPage().withLimit(0));
+
+        Assertions.assertThrows(BadRequestException.class, () -> listGamesService.listGames(listGamesRequest, "*"));
+    }
 }
@@ -0,0 +1,249 @@
+package chess;
+
+/**
+ * Precomputed attack sets for every piece type, indexed by square (0 is a1,
+ * 63 is h8). Knight, king and pawn attacks are plain lookups. Rook and bishop
+ * attacks use magic bitboards: the blockers on a piece's lines are multiplied
+ * by a per-square magic number, and the top bits of the product index a table
+ * holding the attack set for that exact arrangement of blockers.
+ * <p>
+ * The tables are built the first time they are used.
+ */
+final class AttackTables {
+
+    private static final int[][] KNIGHT_OFFSETS = {
+            {2, 1}, {2, -1}, {-2, 1}, {-2, -1},
+            {1, 2}, {1, -2}, {-1, 2}, {-1, -2}
+    };
+
+    private static final int[][] KING_OFFSETS = {
+            {0, 1}, {0, -1}, {1, 0}, {-1, 0},
+            {1, 1}, {1, -1}, {-1, 1}, {-1, -1}
+    };
+
+    private static final int[][] ROOK_DIRECTIONS = {{0, 1}, {0, -1}, {1, 0}, {-1, 0}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    private AttackTables() {
+    }
+
+    /**
+     * @return the squares a knight on the given square attacks
+     */
+    static long knightAttacks(int square) {
+        return StepTables.KNIGHT[square];
+    }
+
+    /**
+     * @return the squares a king on the given square attacks
+     */
+    static long kingAttacks(int square) {
+        return StepTables.KING[square];
+    }
+
+    /**
+     * @return the squares a pawn of the given team on the given square attacks
+     */
+    static long pawnAttacks(ChessGame.TeamColor color, int square) {
+        return StepTables.PAWN[color.ordinal()][square];
+    }
+
+    /**
+     * @return the squares a rook on the given square attacks, stopping at
+     * (and including) the first occupied square in each direction
+     */
+    static long rookAttacks(int square, long occupied) {
+        return SlidingTables.ROOK.attacks(square, occupied);
+    }
+
+    /**
+     * @return the squares a bishop on the given square attacks, stopping at
+     * (and including) the first occupied square in each direction
+     */
+    static long bishopAttacks(int square, long occupied) {
+        return SlidingTables.BISHOP.attacks(square, occupied);
+    }
+
+    /**
+     * @return the squares a queen on the given square attacks
+     */
+    static long queenAttacks(int square, long occupied) {
+        return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+    }
+
+    /**
+     * @return the squares strictly between two squares on the same rank, file
+     * or diagonal, or no squares if they don't share a line
+     */
+    static long between(int from, int to) {
+        return LineTables.BETWEEN[from][to];
+    }
+
+    /**
+     * @return every square on the rank, file or diagonal through both squares,
+     * from edge to edge, or no squares if they don't share a line
+     */
+    static long line(int from, int to) {
+        return LineTables.LINE[from][to];
+    }
+
+    private static final class LineTables {
+        static final long[][] BETWEEN = new long[64][64];
+        static final long[][] LINE = new long[64][64];
+
+        static {
+            for (int from = 0; from < 64; from++) {
+                for (int to = 0; to < 64; to++) {
+                    long toBit = 1L << to;
+                    long fromBit = 1L << from;
+                    if ((rookAttacks(from, 0L) & toBit) != 0) {
+                        BETWEEN[from][to] = rookAttacks(from, toBit) & rookAttacks(to, fromBit);
+                        LINE[from][to] = (rookAttacks(from, 0L) & rookAttacks(to, 0L)) | fromBit | toBit;
+                    }
+                    else if ((bishopAttacks(from, 0L) & toBit) != 0) {
+                        BETWEEN[from][to] = bishopAttacks(from, toBit) & bishopAttacks(to, fromBit);
+                        LINE[from][to] = (bishopAttacks(from, 0L) & bishopAttacks(to, 0L)) | fromBit | toBit;
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class StepTables {
+        static final long[] KNIGHT = new long[64];
+        static final long[] KING = new long[64];
+        static final long[][] PAWN = new long[2][64];
+
+        static {
+            for (int square = 0; square < 64; square++) {
+                KNIGHT[square] = steps(square, KNIGHT_OFFSETS);
+                KING[square] = steps(square, KING_OFFSETS);
+                PAWN[ChessGame.TeamColor.WHITE.ordinal()][square] = steps(square, new int[][]{{1, 1}, {1, -1}});
+                PAWN[ChessGame.TeamColor.BLACK.ordinal()][square] = steps(square, new int[][]{{-1, 1}, {-1, -1}});
+            }
+        }
+
+        private static long steps(int square, int[][] offsets) {
+            long attacks = 0L;
+            for (int[] offset : offsets) {
+                int row = square / 8 + offset[0];
+                int col = square % 8 + offset[1];
+                if (onBoard(row, col)) {
+                    attacks |= 1L << (row * 8 + col);
+                }
+            }
+            return attacks;
+        }
+    }
+
+    private static final class SlidingTables {
+        // Found once with a seeded random search; each maps every blocker
+        // arrangement on its square's mask to a distinct table slot
+        private static final long[] ROOK_MAGICS = {
+            0x2080002080400010L, 0x00C0002001401000L, 0x2100110008402002L, 0x0880080081041000L,
+            0x0200020020041008L, 0x2300040008010012L, 0x0C00283004008201L, 0x0180010000407A80L,
+            0x0168800080400020L, 0x0010400040201000L, 0x1001002001001048L, 0x1001002408100100L,
+            0x0801000408010012L, 0x4001000209000400L, 0x08A20004C8020001L, 0x2002801145002280L,
+            0x0080860021004200L, 0x001000C009402002L, 0x00B0002004002800L, 0x100A808010020800L,
+            0x8101010008000410L, 0x0244008002000480L, 0x0000040010810208L, 0x2000020000448534L,
+            0x4104400480008033L, 0x0000810100204000L, 0x0440430900200010L, 0x4600240900100100L,
+            0x0060080080040080L, 0x0001000300080400L, 0x0004084400011002L, 0x0023040200008041L,
+            0x0580050043002080L, 0x0400804002802008L, 0x0001002001004010L, 0x1000200901001000L,
+            0x4410800801800C00L, 0xA012003806001004L, 0x0020100104008802L, 0x0004808402000041L,
+            0x0010400170898000L, 0x0080500020004004L, 0x1040408012020020L, 0x8010040008004040L,
+            0x2001080100110004L, 0x0000020004008080L, 0x0021010810040002L, 0x0800008C43020024L,
+            0x0000800021005100L, 0x0070201040008080L, 0x0000D04282006A00L, 0x0010014400080240L,
+            0x0001080110050100L, 0x0012000810240600L, 0x0402000801040200L, 0x028100108A004100L,
+            0x0050800300102045L, 0x8208210040120882L, 0x8010600101183441L, 0x020B000910006045L,
+            0x0241001002480005L, 0x0081000400880241L, 0x0000009008024124L, 0x0048122980410402L
+        };
+
+        private static final long[] BISHOP_MAGICS = {
+            0x8008029802002200L, 0x4291040808802804L, 0x0008180040800300L, 0x00088A0202AA1050L,
+            0x000410A800000000L, 0x0009100804040009L, 0x0801140121080011L, 0xA040808400824000L,
+            0x000008A004040048L, 0x0600200440808114L, 0x2020410401204403L, 0x000404106200C001L,
+            0x0100011040800026L, 0x00080088200A0820L, 0x0008004804642080L, 0x4000004402981800L,
+            0x0710002220020088L, 0x2010808202020402L, 0x8010080844002820L, 0x800C000124028000L,
+            0x0002000422010040L, 0x6438402200422000L, 0x0010A1004C0C2000L, 0x000A00E109010190L,
+            0x08022010400414C0L, 0x8428022220240101L, 0x0008088004040010L, 0x0008080000220020L,
+            0x0421010000104000L, 0x219102082500A000L, 0x0018008042120150L, 0x02108020A09C0402L,
+            0x301C202000890208L, 0xA004022000080100L, 0x100C024100881200L, 0x8000080800460A00L,
+            0x1004010804440040L, 0x420C920080041000L, 0x05018C0114440100L, 0x00040100308A0080L,
+            0x0020821042801000L, 0x0202026120001C02L, 0x0002001044000800L, 0x20AA844200800801L,
+            0x0000012011001200L, 0x0860209008808042L, 0x0008100080A80200L, 0x0808020050420201L,
+            0x00051C0104C00000L, 0x0000840108820022L, 0x000A461842080004L, 0x2400400914880002L,
+            0x00040040102481B4L, 0x2104A14202020060L, 0x0004081041020060L, 0x00A0840082005100L,
+            0x0000412210101482L, 0x0108504208042210L, 0x000020044C040405L, 0x4140050206051401L,
+            0x0122008051820200L, 0x0082800428109100L, 0x9104042454440401L, 0x141E200C00820848L
+        };
+
+        static final SlidingTables ROOK = new SlidingTables(ROOK_DIRECTIONS, ROOK_MAGICS);
+        static final SlidingTables BISHOP = new SlidingTables(BISHOP_DIRECTIONS, BISHOP_MAGICS);
+
+        private final long[] masks = new long[64];
+        private final long[] magics;
+        private final int[] shifts = new int[64];
+        private final long[][] attacks = new long[64][];
+
+        private SlidingTables(int[][] directions, long[] magics) {
+            this.magics = magics;
+            for (int square = 0; square < 64; square++) {
+                // Pieces on the edge of the board never block anything further, so leave them out
+                long mask = rays(square, 0L, directions) & ~edges(square);
+                int bits = Long.bitCount(mask);
+                masks[square] = mask;
+                shifts[square] = 64 - bits;
+                attacks[square] = new long[1 << bits];
+
+                // Walk every arrangement of blockers on the mask
+                long blockers = 0L;
+                do {
+                    attacks[square][index(square, blockers)] = rays(square, blockers, directions);
+                    blockers = (blockers - mask) & mask;
+                } while (blockers != 0);
+            }
+        }
+
+        long attacks(int square, long occupied) {
+            return attacks[square][index(square, occupied)];
+        }
+
+        private int index(int square, long occupied) {
+            return (int) (((occupied & masks[square]) * magics[square]) >>> shifts[square]);
+        }
+
+        private static long rays(int square, long occupied, int[][] directions) {
+            long attacks = 0L;
+            for (int[] direction : directions) {
+                int row = square / 8 + direction[0];
+                int col = square % 8 + direction[1];
+                while (onBoard(row, col)) {
+                    long bit = 1L << (row * 8 + col);
+                    attacks |= bit;
+                    if ((occupied & bit) != 0) {
+                        break;
+                    }
+                    row += direction[0];
+                    col += direction[1];
+                }
+            }
+            return attacks;
+        }
+
+        private static long edges(int square) {
+            long rank1 = 0xFFL;
+            long rank8 = 0xFFL << 56;
+            long fileA = 0x0101010101010101L;
+            long fileH = fileA << 7;
+
+            // An edge the piece is standing on still matters along that edge
+            int row = square / 8;
+            int col = square % 8;
+            return ((rank1 | rank8) & ~(0xFFL << (row * 8))) | ((fileA | fileH) & ~(fileA << col));
+        }
+    }
+
+    private static boolean onBoard(int row, int col) {
+        return row >= 0 && row < 8 && col >= 0 && col < 8;
+    }
+}
@@ -1,7 +1,8 @@
 package chess;
 
+import com.google.gson.annotations.JsonAdapter;
+
 import java.util.Arrays;
-import java.util.Objects;
 
 /**
  * A chessboard that can hold and rearrange chess pieces.
@@ -9,6 +10,7 @@ import java.util.Objects;
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(ChessBoardAdapter.class)
 public class ChessBoard implements Cloneable {
 
     @Override
@@ -17,34 +19,52 @@ public class ChessBoard implements Cloneable {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
-        return Objects.deepEquals(board, that.board);
+        return Arrays.equals(pieces, that.pieces);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(board);
+        long key = getZobristKey();
+        return (int) (key ^ (key >>> 32));
+    }
+
+    private static final int PIECE_TYPES = ChessPiece.PieceType.values().length;
+
+    // One shared piece per color/type pair, so getPiece never has to allocate
+    private static final ChessPiece[] PIECES = new ChessPiece[2 * PIECE_TYPES];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+                PIECES[index(color, type)] = new ChessPiece(color, type);
+            }
+        }
     }
 
-    private ChessPiece[][] board;
+    // FEN letter for each color/type pair, in the same order as the piece sets
+    private static final String LETTERS = "KQBNRPkqbnrp";
+
+    // Bit n of each set is the square at row (n / 8) + 1, column (n % 8) + 1
+    private long[] pieces;
+    private long[] colors;
+    private long occupied;
+
+    // Zobrist key of the pieces on the board, kept up to date once it has been computed
+    private transient long zobristKey;
+    private transient boolean zobristKnown;
 
     public ChessBoard() {
-        board = new ChessPiece[8][8];
+        pieces = new long[2 * PIECE_TYPES];
+        colors = new long[2];
+        occupied = 0L;
     }
 
     @Override
     public ChessBoard clone() {
         try {
             ChessBoard copy = (ChessBoard) super.clone();
-            copy.board = new ChessPiece[8][8];
-
-            for (int row = 0; row < 8; row++) {
-                for (int col = 0; col < 8; col++) {
-                    if (board[row][col] != null) {
-                        copy.board[row][col] = this.board[row][col].clone();
-                    }
-                }
-            }
-
+            copy.pieces = pieces.clone();
+            copy.colors = colors.clone();
             return copy;
         } catch (CloneNotSupportedException e) {
             throw new RuntimeException(e);
@@ -58,14 +78,11 @@ public class ChessBoard implements Cloneable {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        int rowIndex = position.getRow() - 1;
-        int colIndex = position.getColumn() - 1;
+        int square = square(position);
 
+        removePiece(square);
         if (piece != null) {
-            board[rowIndex][colIndex] = new ChessPiece(piece.getTeamColor(), piece.getPieceType());
-        }
-        else {
-            board[rowIndex][colIndex] = null;
+            putPiece(square, piece.getTeamColor(), piece.getPieceType());
         }
     }
 
@@ -77,12 +94,313 @@ public class ChessBoard implements Cloneable {
      * position
      */
     public ChessPiece getPiece(ChessPosition position) {
-        int rowIndex = position.getRow() - 1;
-        int colIndex = position.getColumn() - 1;
-        if (board[rowIndex][colIndex] == null) {
+        return getPiece(square(position));
+    }
+
+    /**
+     * Gets a chess piece by its square index
+     *
+     * @param square the square index (0 is a1, 63 is h8)
+     * @return the piece on that square, or null if it is empty
+     */
+    ChessPiece getPiece(int square) {
+        long bit = 1L << square;
+        if ((occupied & bit) == 0) {
             return null;
         }
-        return board[rowIndex][colIndex];
+        int first = (colors[0] & bit) != 0 ? 0 : PIECE_TYPES;
+        for (int i = first; i < first + PIECE_TYPES; i++) {
+            if ((pieces[i] & bit) != 0) {
+                return PIECES[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Places a piece on an empty square
+     */
+    void putPiece(int square, ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        long bit = 1L << square;
+        int index = index(color, type);
+        pieces[index] |= bit;
+        colors[color.ordinal()] |= bit;
+        occupied |= bit;
+        if (zobristKnown) {
+            zobristKey ^= Zobrist.piece(index, square);
+        }
+    }
+
+    /**
+     * Clears a square
+     *
+     * @return the piece that was on the square, or null if it was empty
+     */
+    ChessPiece removePiece(int square) {
+        ChessPiece piece = getPiece(square);
+        if (piece != null) {
+            long bit = 1L << square;
+            int index = index(piece.getTeamColor(), piece.getPieceType());
+            pieces[index] &= ~bit;
+            colors[piece.getTeamColor().ordinal()] &= ~bit;
+            occupied &= ~bit;
+            if (zobristKnown) {
+                zobristKey ^= Zobrist.piece(index, square);
+            }
+        }
+        return piece;
+    }
+
+    /**
+     * Gets the Zobrist key of the pieces on this board. Two boards with the
+     * same pieces on the same squares always have the same key. The key is
+     * worked out once and then updated as pieces are added and removed.
+     *
+     * @return the 64-bit key for this arrangement of pieces
+     */
+    public long getZobristKey() {
+        if (!zobristKnown) {
+            long key = 0L;
+            for (int index = 0; index < pieces.length; index++) {
+                long set = pieces[index];
+                while (set != 0) {
+                    key ^= Zobrist.piece(index, Long.numberOfTrailingZeros(set));
+                    set &= set - 1;
+                }
+            }
+            zobristKey = key;
+            zobristKnown = true;
+        }
+        return zobristKey;
+    }
+
+    /**
+     * @return the set of squares holding the given team's pieces of the given type
+     */
+    long getPieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieces[index(color, type)];
+    }
+
+    /**
+     * @return the set of squares holding any of the given team's pieces
+     */
+    long getPieces(ChessGame.TeamColor color) {
+        return colors[color.ordinal()];
+    }
+
+    /**
+     * @return the set of squares holding any piece
+     */
+    long getOccupied() {
+        return occupied;
+    }
+
+    /**
+     * @return the square index of the given team's king, or -1 if it has none
+     */
+    int kingSquare(ChessGame.TeamColor color) {
+        long king = pieces[index(color, ChessPiece.PieceType.KING)];
+        return (king == 0) ? -1 : Long.numberOfTrailingZeros(king);
+    }
+
+    /**
+     * Determines if any piece of the given team could capture on a square, by
+     * looking outward from the square for the pieces that would attack it
+     *
+     * @param square the square index to test
+     * @param byColor the attacking team
+     * @return True if the square is attacked
+     */
+    boolean isAttacked(int square, ChessGame.TeamColor byColor) {
+        return isAttacked(square, byColor, occupied);
+    }
+
+    /**
+     * Same as isAttacked(int, TeamColor), but sliding pieces are blocked only
+     * by the given squares. Leaving the king out of the blockers shows whether
+     * it would still be attacked after stepping away along the attacking line.
+     */
+    boolean isAttacked(int square, ChessGame.TeamColor byColor, long blockers) {
+        // A pawn attacks the square if a pawn of the other team standing there would attack the pawn
+        if ((AttackTables.pawnAttacks(otherTeam(byColor), square) & getPieces(byColor, ChessPiece.PieceType.PAWN)) != 0) {
+            return true;
+        }
+        if ((AttackTables.knightAttacks(square) & getPieces(byColor, ChessPiece.PieceType.KNIGHT)) != 0) {
+            return true;
+        }
+        if ((AttackTables.kingAttacks(square) & getPieces(byColor, ChessPiece.PieceType.KING)) != 0) {
+            return true;
+        }
+
+        long queens = getPieces(byColor, ChessPiece.PieceType.QUEEN);
+        long straight = getPieces(byColor, ChessPiece.PieceType.ROOK) | queens;
+        long diagonal = getPieces(byColor, ChessPiece.PieceType.BISHOP) | queens;
+        return (straight != 0 && (AttackTables.rookAttacks(square, blockers) & straight) != 0)
+                || (diagonal != 0 && (AttackTables.bishopAttacks(square, blockers) & diagonal) != 0);
+    }
+
+    /**
+     * @return the set of squares holding pieces of the given team that attack a square
+     */
+    long attackers(int square, ChessGame.TeamColor byColor) {
+        long queens = getPieces(byColor, ChessPiece.PieceType.QUEEN);
+        return (AttackTables.pawnAttacks(otherTeam(byColor), square) & getPieces(byColor, ChessPiece.PieceType.PAWN))
+                | (AttackTables.knightAttacks(square) & getPieces(byColor, ChessPiece.PieceType.KNIGHT))
+                | (AttackTables.kingAttacks(square) & getPieces(byColor, ChessPiece.PieceType.KING))
+                | (AttackTables.rookAttacks(square, occupied) & (getPieces(byColor, ChessPiece.PieceType.ROOK) | queens))
+                | (AttackTables.bishopAttacks(square, occupied) & (getPieces(byColor, ChessPiece.PieceType.BISHOP) | queens));
+    }
+
+    /**
+     * Finds the pieces that can't leave the line between their king and an
+     * enemy rook, bishop or queen without exposing the king
+     *
+     * @param color the team whose pinned pieces to find
+     * @param kingSquare the square index of that team's king
+     * @return the set of squares holding pinned pieces
+     */
+    long pinnedPieces(ChessGame.TeamColor color, int kingSquare) {
+        ChessGame.TeamColor enemy = otherTeam(color);
+        long enemyPieces = getPieces(enemy);
+        long queens = getPieces(enemy, ChessPiece.PieceType.QUEEN);
+
+        // Enemy sliders that would attack the king if only enemy pieces could block them
+        long pinners = (AttackTables.rookAttacks(kingSquare, enemyPieces)
+                & (getPieces(enemy, ChessPiece.PieceType.ROOK) | queens))
+                | (AttackTables.bishopAttacks(kingSquare, enemyPieces)
+                & (getPieces(enemy, ChessPiece.PieceType.BISHOP) | queens));
+
+        long pinned = 0L;
+        while (pinners != 0) {
+            long blockers = AttackTables.between(kingSquare, Long.numberOfTrailingZeros(pinners)) & occupied;
+            if (Long.bitCount(blockers) == 1) {
+                pinned |= blockers & getPieces(color);
+            }
+            pinners &= pinners - 1;
+        }
+        return pinned;
+    }
+
+    /**
+     * Writes the pieces as the piece placement field of a FEN record: ranks
+     * from 8 down to 1 separated by '/', white pieces in upper case, black
+     * in lower case, and runs of empty squares as a digit.
+     *
+     * @return the piece placement, like "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR"
+     */
+    public String toPlacement() {
+        StringBuilder placement = new StringBuilder(71);
+        appendPlacement(placement);
+        return placement.toString();
+    }
+
+    /**
+     * Writes the piece placement onto the end of a builder
+     */
+    void appendPlacement(StringBuilder placement) {
+        for (int row = 7; row >= 0; row--) {
+            int empty = 0;
+            for (int col = 0; col < 8; col++) {
+                int square = row * 8 + col;
+                if ((occupied & (1L << square)) == 0) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    placement.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                placement.append(pieceLetter(getPiece(square)));
+            }
+            if (empty > 0) {
+                placement.append((char) ('0' + empty));
+            }
+            if (row > 0) {
+                placement.append('/');
+            }
+        }
+    }
+
+    /**
+     * Builds a board from the piece placement field of a FEN record
+     *
+     * @param placement the piece placement, as written by toPlacement()
+     * @return a new board holding those pieces
+     * @throws IllegalArgumentException if the placement isn't eight ranks of eight squares
+     */
+    public static ChessBoard fromPlacement(String placement) {
+        return fromPlacement(placement, 0, placement.length());
+    }
+
+    /**
+     * Builds a board from the piece placement held in part of a string, so a
+     * whole FEN record can be read without cutting it into pieces first
+     *
+     * @param text  the string holding the placement
+     * @param begin the index of the placement's first character
+     * @param end   the index just past its last character
+     */
+    static ChessBoard fromPlacement(String text, int begin, int end) {
+        ChessBoard board = new ChessBoard();
+        int row = 7;
+        int col = 0;
+        for (int i = begin; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '/') {
+                if (col != 8 || row == 0) {
+                    throw badPlacement(text, begin, end);
+                }
+                row--;
+                col = 0;
+            }
+            else if (c >= '1' && c <= '8') {
+                col += c - '0';
+            }
+            else {
+                int index = LETTERS.indexOf(c);
+                if (index < 0 || col >= 8) {
+                    throw badPlacement(text, begin, end);
+                }
+                long bit = 1L << (row * 8 + col);
+                board.pieces[index] |= bit;
+                board.colors[index / PIECE_TYPES] |= bit;
+                board.occupied |= bit;
+                col++;
+            }
+            if (col > 8) {
+                throw badPlacement(text, begin, end);
+            }
+        }
+        if (row != 0 || col != 8) {
+            throw badPlacement(text, begin, end);
+        }
+        return board;
+    }
+
+    private static IllegalArgumentException badPlacement(String text, int begin, int end) {
+        return new IllegalArgumentException("Bad piece placement: " + text.substring(begin, end));
+    }
+
+    private static char pieceLetter(ChessPiece piece) {
+        return LETTERS.charAt(index(piece.getTeamColor(), piece.getPieceType()));
+    }
+
+    private static ChessGame.TeamColor otherTeam(ChessGame.TeamColor team) {
+        return (team == ChessGame.TeamColor.WHITE) ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
+
+    // Checked here because 1L << square wraps around, so an off-board square would quietly read another one
+    static int square(ChessPosition position) {
+        int row = position.getRow();
+        int col = position.getColumn();
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            throw new IndexOutOfBoundsException("Position " + row + "," + col + " is off the board");
+        }
+        return position.getSquare();
+    }
+
+    private static int index(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * PIECE_TYPES + type.ordinal();
     }
 
     /**
@@ -90,76 +408,80 @@ public class ChessBoard implements Cloneable {
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
-        board = new ChessPiece[8][8];
+        Arrays.fill(pieces, 0L);
+        Arrays.fill(colors, 0L);
+        occupied = 0L;
+        zobristKey = 0L;
+        zobristKnown = true;
 
         // Add pieces to the starting positions
 
         // White pieces
         // Pawns
         for (int i = 1; i < 9; i++) {
-            ChessPosition position = new ChessPosition(2, i);
+            ChessPosition position = ChessPosition.of(2, i);
             ChessPiece piece = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
             addPiece(position, piece);
         }
         // Rooks
         ChessPiece piece = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
-        ChessPosition position = new ChessPosition(1,1);
+        ChessPosition position = ChessPosition.of(1,1);
         addPiece(position, piece);
-        position = new ChessPosition(1, 8);
+        position = ChessPosition.of(1, 8);
         addPiece(position, piece);
         // Knights
         piece = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
-        position = new ChessPosition(1,2);
+        position = ChessPosition.of(1,2);
         addPiece(position, piece);
-        position = new ChessPosition(1, 7);
+        position = ChessPosition.of(1, 7);
         addPiece(position, piece);
         // Bishops
         piece = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
-        position = new ChessPosition(1,3);
+        position = ChessPosition.of(1,3);
         addPiece(position, piece);
-        position = new ChessPosition(1, 6);
+        position = ChessPosition.of(1, 6);
         addPiece(position, piece);
         // Queen
         piece = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN);
-        position = new ChessPosition(1,4);
+        position = ChessPosition.of(1,4);
         addPiece(position, piece);
         // King
         piece = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
-        position = new ChessPosition(1,5);
+        position = ChessPosition.of(1,5);
         addPiece(position, piece);
 
         // Black pieces
         // Pawns
         for (int i = 1; i < 9; i++) {
-            position = new ChessPosition(7, i);
+            position = ChessPosition.of(7, i);
             piece = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
             addPiece(position, piece);
         }
         // Rooks
         piece = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
-        position = new ChessPosition(8,1);
+        position = ChessPosition.of(8,1);
         addPiece(position, piece);
-        position = new ChessPosition(8, 8);
+        position = ChessPosition.of(8, 8);
         addPiece(position, piece);
         // Knights
         piece = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
-        position = new ChessPosition(8,2);
+        position = ChessPosition.of(8,2);
         addPiece(position, piece);
-        position = new ChessPosition(8, 7);
+        position = ChessPosition.of(8, 7);
         addPiece(position, piece);
         // Bishops
         piece = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
-        position = new ChessPosition(8,3);
+        position = ChessPosition.of(8,3);
         addPiece(position, piece);
-        position = new ChessPosition(8, 6);
+        position = ChessPosition.of(8, 6);
         addPiece(position, piece);
         // Queen
         piece = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN);
-        position = new ChessPosition(8,4);
+        position = ChessPosition.of(8,4);
         addPiece(position, piece);
         // King
         piece = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
-        position = new ChessPosition(8,5);
+        position = ChessPosition.of(8,5);
         addPiece(position, piece);
     }
 }
@@ -0,0 +1,86 @@
+package chess;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Writes a ChessBoard as its FEN piece placement string, like
+ * "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR", instead of letting Gson
+ * reflect over the piece sets.
+ * <p>
+ * Boards saved before this adapter existed were written as JSON objects,
+ * either as the old 8x8 piece array or as the bitboard fields, and are still
+ * read so existing games keep loading.
+ */
+public final class ChessBoardAdapter extends TypeAdapter<ChessBoard> {
+
+    @Override
+    public void write(JsonWriter out, ChessBoard board) throws IOException {
+        if (board == null) {
+            out.nullValue();
+            return;
+        }
+        out.value(board.toPlacement());
+    }
+
+    @Override
+    public ChessBoard read(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        if (token == JsonToken.BEGIN_OBJECT) {
+            return readLegacy(JsonParser.parseReader(in).getAsJsonObject());
+        }
+        try {
+            return ChessBoard.fromPlacement(in.nextString());
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException(e.getMessage(), e);
+        }
+    }
+
+    private static ChessBoard readLegacy(JsonObject json) {
+        ChessBoard board = new ChessBoard();
+        if (json.has("board")) {
+            // {"board": [[{"color": "WHITE", "type": "ROOK"}, ...], ...]}, indexed [row - 1][col - 1]
+            JsonArray rows = json.getAsJsonArray("board");
+            for (int row = 0; row < rows.size() && row < 8; row++) {
+                JsonArray cols = rows.get(row).getAsJsonArray();
+                for (int col = 0; col < cols.size() && col < 8; col++) {
+                    JsonElement piece = cols.get(col);
+                    if (piece.isJsonObject()) {
+                        JsonObject fields = piece.getAsJsonObject();
+                        board.putPiece(row * 8 + col,
+                                ChessGame.TeamColor.valueOf(fields.get("color").getAsString()),
+                                ChessPiece.PieceType.valueOf(fields.get("type").getAsString()));
+                    }
+                }
+            }
+        }
+        else if (json.has("pieces")) {
+            // {"pieces": [12 bitboards, white then black], "colors": [...], "occupied": ...}
+            JsonArray sets = json.getAsJsonArray("pieces");
+            ChessGame.TeamColor[] colors = ChessGame.TeamColor.values();
+            ChessPiece.PieceType[] types = ChessPiece.PieceType.values();
+            for (int index = 0; index < sets.size() && index < 2 * types.length; index++) {
+                long set = sets.get(index).getAsLong();
+                while (set != 0) {
+                    board.putPiece(Long.numberOfTrailingZeros(set),
+                            colors[index / types.length], types[index % types.length]);
+                    set &= set - 1;
+                }
+            }
+        }
+        return board;
+    }
+}
@@ -1,7 +1,12 @@
 package chess;
 
-import java.util.ArrayList;
+import com.google.gson.annotations.JsonAdapter;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -10,6 +15,7 @@ import java.util.Objects;
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(ChessGameAdapter.class)
 public class ChessGame {
     @Override
     public boolean equals(Object o) {
@@ -22,18 +28,73 @@ public class ChessGame {
 
     @Override
     public int hashCode() {
-        return Objects.hash(board, turn);
+        // Only the board and turn, to match equals
+        long key = board.getZobristKey();
+        if (turn == TeamColor.BLACK) {
+            key ^= Zobrist.BLACK_TO_MOVE;
+        }
+        return (int) (key ^ (key >>> 32));
     }
 
+    /**
+     * The most bytes encode(ByteBuffer) can write
+     */
+    public static final int MAX_ENCODED_SIZE = GameCodec.MAX_SIZE;
+
+    // Castling rights, one bit each, in the same order as the letters FEN uses for them
+    static final int WHITE_KINGSIDE = 1;
+    static final int WHITE_QUEENSIDE = 2;
+    static final int BLACK_KINGSIDE = 4;
+    static final int BLACK_QUEENSIDE = 8;
+    static final int ALL_CASTLING = 15;
+    private static final String CASTLING_LETTERS = "KQkq";
+
     private ChessBoard board;
     private TeamColor turn = TeamColor.WHITE;
     private boolean gameOver = false;
 
+    // The rest of a FEN record. This game has no castling or en passant moves, but the
+    // rights and the en passant square are still tracked so they read and write faithfully.
+    private int castlingRights = ALL_CASTLING;
+    private int enPassantSquare = -1;
+    private int halfmoveClock = 0;
+    private int fullmoveNumber = 1;
+
+    // What unmakeMove() needs for each move made with makeMoveUnchecked(int), latest last
+    private transient int[] undoMoves = new int[16];
+    private transient ChessPiece[] undoCaptured = new ChessPiece[16];
+    private transient TeamColor[] undoTurns = new TeamColor[16];
+    private transient int undoDepth = 0;
+
+    // Reused by hasAnyLegalMove so answering it doesn't allocate
+    private transient MoveList scratchMoves;
+
+    // The last status worked out by getGameStatus, and the Zobrist key of the position it belongs to
+    private transient GameStatus cachedStatus;
+    private transient long cachedStatusKey;
+
     public ChessGame() {
         board = new ChessBoard();
         board.resetBoard();
     }
 
+    /**
+     * Creates a game from saved state
+     *
+     * @param castlingRights  the castling rights, as a set of the *_KINGSIDE and *_QUEENSIDE bits
+     * @param enPassantSquare the square a pawn just skipped over, or -1 for none
+     */
+    ChessGame(ChessBoard board, TeamColor turn, int castlingRights, int enPassantSquare,
+              int halfmoveClock, int fullmoveNumber, boolean gameOver) {
+        this.board = board;
+        this.turn = turn;
+        this.castlingRights = castlingRights;
+        this.enPassantSquare = enPassantSquare;
+        this.halfmoveClock = halfmoveClock;
+        this.fullmoveNumber = fullmoveNumber;
+        this.gameOver = gameOver;
+    }
+
     /**
      * @return Which team's turn it is
      */
@@ -50,6 +111,25 @@ public class ChessGame {
         turn = team;
     }
 
+    /**
+     * Gets the Zobrist key of the current position: the pieces on the board,
+     * whose turn it is, the castling rights and the en passant file. Equal
+     * positions always have equal keys, so the key can stand in for the
+     * position in caches and repetition checks. The board's part is kept up
+     * to date as moves are made, so this is constant time.
+     *
+     * @return the 64-bit key for the current position
+     */
+    public long getZobristKey() {
+        long key = board.getZobristKey();
+        if (turn == TeamColor.BLACK) {
+            key ^= Zobrist.BLACK_TO_MOVE;
+        }
+        key ^= Zobrist.castling(castlingRights);
+        key ^= Zobrist.enPassant((enPassantSquare < 0) ? -1 : enPassantSquare % 8);
+        return key;
+    }
+
     /**
      * Enum identifying the 2 possible teams in a chess game
      */
@@ -73,32 +153,149 @@ public class ChessGame {
             return null;
         }
 
-        Collection<ChessMove> possibleMoves = piece.pieceMoves(board, startPosition);
-        Collection<ChessMove> validMoves = new ArrayList<>();
-        ChessBoard boardCopy;
-        ChessBoard boardOriginal = board;
+        MoveList moves = new MoveList();
+        validMoves(ChessBoard.square(startPosition), moves);
+        return moves.toChessMoves();
+    }
+
+    /**
+     * Adds the packed valid moves for the piece on a square to a list, without
+     * allocating anything per move. Moves already in the list are left alone.
+     *
+     * @param startSquare the square index of the piece to get valid moves for
+     * @param moves       the list to add the moves to
+     */
+    public void validMoves(int startSquare, MoveList moves) {
+        ChessPiece piece = board.getPiece(startSquare);
+        if (piece == null) {
+            return;
+        }
+        addLegalMoves(piece.getTeamColor(), 1L << startSquare, moves, false);
+    }
+
+    /**
+     * Gets every valid move for a team
+     *
+     * @param teamColor the team to get valid moves for
+     * @return the valid moves of all the team's pieces
+     */
+    public Collection<ChessMove> allLegalMoves(TeamColor teamColor) {
+        MoveList moves = new MoveList();
+        allLegalMoves(teamColor, moves);
+        return moves.toChessMoves();
+    }
+
+    /**
+     * Adds the packed valid moves of every piece on a team to a list
+     *
+     * @param teamColor the team to get valid moves for
+     * @param moves     the list to add the moves to
+     */
+    public void allLegalMoves(TeamColor teamColor, MoveList moves) {
+        addLegalMoves(teamColor, board.getPieces(teamColor), moves, false);
+    }
+
+    /**
+     * Determines if a team has at least one valid move, stopping as soon as it
+     * finds one
+     *
+     * @param teamColor the team to check
+     * @return True if the team can make any move
+     */
+    public boolean hasAnyLegalMove(TeamColor teamColor) {
+        if (scratchMoves == null) {
+            scratchMoves = new MoveList();
+        }
+        scratchMoves.clear();
+        return addLegalMoves(teamColor, board.getPieces(teamColor), scratchMoves, true);
+    }
 
-        // Check every move in the collection of possible moves
-        for (ChessMove move : possibleMoves) {
-            ChessPosition endPosition = move.getEndPosition();
+    /**
+     * Generates the valid moves for some of a team's pieces in one pass. The
+     * checking pieces and the pinned pieces are found once up front, and each
+     * piece's moves are then filtered with bit masks: while in check a move
+     * must capture the checker or block it, and a pinned piece must stay on the
+     * line between its king and the pinning piece. Only king moves need an
+     * attack test per move.
+     *
+     * @param teamColor  the team to move
+     * @param fromSquares the squares whose pieces to generate moves for
+     * @param moves      the list to add the moves to
+     * @param firstOnly  stop after finding one valid move
+     * @return True if any valid move was found
+     */
+    private boolean addLegalMoves(TeamColor teamColor, long fromSquares, MoveList moves, boolean firstOnly) {
+        int kingSquare = board.kingSquare(teamColor);
+        TeamColor enemy = otherTeam(teamColor);
+        long allowed = ~0L;
+        long pinned = 0L;
+        boolean doubleCheck = false;
+        boolean found = false;
+
+        if (kingSquare >= 0) {
+            long checkers = board.attackers(kingSquare, enemy);
+            if (Long.bitCount(checkers) > 1) {
+                // Only the king can get out of a double check
+                doubleCheck = true;
+            }
+            else if (checkers != 0) {
+                allowed = checkers | AttackTables.between(kingSquare, Long.numberOfTrailingZeros(checkers));
+            }
+            pinned = board.pinnedPieces(teamColor, kingSquare);
+
+            if ((fromSquares & (1L << kingSquare)) != 0) {
+                // The king can't be allowed to hide behind itself from a slider, so take it off the board
+                long blockers = board.getOccupied() & ~(1L << kingSquare);
+                int first = moves.size();
+                board.getPiece(kingSquare).pieceMoves(board, kingSquare, moves);
+                int kept = first;
+                for (int i = first; i < moves.size(); i++) {
+                    int move = moves.get(i);
+                    if (!board.isAttacked(MoveList.endSquare(move), enemy, blockers)) {
+                        moves.set(kept++, move);
+                    }
+                }
+                moves.truncate(kept);
+                found = kept > first;
+                if (found && firstOnly) {
+                    return true;
+                }
+            }
+            fromSquares &= ~(1L << kingSquare);
+        }
 
-            // Move piece on the copy board
-            boardCopy = board.clone();
-            boardCopy.addPiece(endPosition, piece);
-            boardCopy.addPiece(startPosition, null);
-            TeamColor pieceColor = piece.getTeamColor();
+        if (doubleCheck) {
+            return found;
+        }
 
-            // Temporarily change board to board copy so isInCheck() works
-            board = boardCopy;
+        long pieces = fromSquares & board.getPieces(teamColor);
+        while (pieces != 0) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
 
-            // Make sure it doesn't leave the king exposed
-            if (isInCheck(pieceColor) == false) {
-                validMoves.add(move);
+            long targets = allowed;
+            if ((pinned & (1L << square)) != 0) {
+                targets &= AttackTables.line(kingSquare, square);
             }
-            board = boardOriginal;
-        } 
 
-        return validMoves;
+            int first = moves.size();
+            board.getPiece(square).pieceMoves(board, square, moves);
+            int kept = first;
+            for (int i = first; i < moves.size(); i++) {
+                int move = moves.get(i);
+                if ((targets & (1L << MoveList.endSquare(move))) != 0) {
+                    moves.set(kept++, move);
+                }
+            }
+            moves.truncate(kept);
+            if (kept > first) {
+                found = true;
+                if (firstOnly) {
+                    return true;
+                }
+            }
+        }
+        return found;
     }
 
     /**
@@ -129,16 +326,155 @@ public class ChessGame {
         }
 
         // Move piece and change turns
-        ChessPosition endPosition = move.getEndPosition();
-        board.addPiece(endPosition, piece);
-        board.addPiece(startPosition, null);
+        replayMove(move);
+    }
+
+    /**
+     * Plays a move that is already known to be legal, such as one read back
+     * from a saved game, without working out the legal moves to check it.
+     * Unlike makeMoveUnchecked, this keeps the castling rights, en passant
+     * square and move counters up to date, leaving the game as makeMove would.
+     *
+     * @param move chess move to perform, whose start position must hold a piece
+     */
+    public void replayMove(ChessMove move) {
+        MoveUndo undo = makeMoveUnchecked(move);
+        updateFenState(undo);
+        cachedStatus = null;
+    }
+
+    /**
+     * Updates the castling rights, en passant square and move counters after
+     * a move. Only makeMove and replayMove keep these up to date; the unchecked
+     * moves used for searching leave them alone.
+     */
+    private void updateFenState(MoveUndo undo) {
+        int start = ChessBoard.square(undo.move().getStartPosition());
+        int end = ChessBoard.square(undo.move().getEndPosition());
+        boolean pawn = undo.moved().getPieceType() == ChessPiece.PieceType.PAWN;
+
+        castlingRights &= ~(castlingLost(start) | castlingLost(end));
+        enPassantSquare = (pawn && Math.abs(end - start) == 16) ? (start + end) / 2 : -1;
+        halfmoveClock = (pawn || undo.captured() != null) ? 0 : halfmoveClock + 1;
+        if (undo.turn() == TeamColor.BLACK) {
+            fullmoveNumber++;
+        }
+    }
+
+    // The castling rights lost when a piece moves from or to a square
+    private static int castlingLost(int square) {
+        return switch (square) {
+            case 0 -> WHITE_QUEENSIDE;
+            case 4 -> WHITE_KINGSIDE | WHITE_QUEENSIDE;
+            case 7 -> WHITE_KINGSIDE;
+            case 56 -> BLACK_QUEENSIDE;
+            case 60 -> BLACK_KINGSIDE | BLACK_QUEENSIDE;
+            case 63 -> BLACK_KINGSIDE;
+            default -> 0;
+        };
+    }
+
+    /**
+     * Everything needed to take back a move made with makeMoveUnchecked
+     *
+     * @param move     the move that was made
+     * @param moved    the piece that moved, before any promotion
+     * @param captured the piece that was on the end square, or null
+     * @param turn     whose turn it was before the move
+     */
+    public record MoveUndo(ChessMove move, ChessPiece moved, ChessPiece captured, TeamColor turn) {}
+
+    /**
+     * Plays a move directly on this game's board without checking that it is
+     * legal, and hands it to the other team. The returned record can be passed
+     * to unmakeMove to restore the game exactly as it was.
+     *
+     * @param move chess move to perform, whose start position must hold a piece
+     * @return the information needed to undo the move
+     */
+    public MoveUndo makeMoveUnchecked(ChessMove move) {
+        int start = ChessBoard.square(move.getStartPosition());
+        int end = ChessBoard.square(move.getEndPosition());
+
+        ChessPiece moved = board.removePiece(start);
+        ChessPiece captured = board.removePiece(end);
+        ChessPiece.PieceType type = (move.getPromotionPiece() != null) ? move.getPromotionPiece() : moved.getPieceType();
+        board.putPiece(end, moved.getTeamColor(), type);
+
+        MoveUndo undo = new MoveUndo(move, moved, captured, turn);
+        turn = otherTeam(moved.getTeamColor());
+        return undo;
+    }
+
+    /**
+     * Takes back a move made with makeMoveUnchecked. Moves must be taken back
+     * in the reverse order they were made.
+     *
+     * @param undo the record returned when the move was made
+     */
+    public void unmakeMove(MoveUndo undo) {
+        int start = ChessBoard.square(undo.move().getStartPosition());
+        int end = ChessBoard.square(undo.move().getEndPosition());
+
+        board.removePiece(end);
+        board.putPiece(start, undo.moved().getTeamColor(), undo.moved().getPieceType());
+        if (undo.captured() != null) {
+            board.putPiece(end, undo.captured().getTeamColor(), undo.captured().getPieceType());
+        }
+        turn = undo.turn();
+    }
 
-        if (move.getPromotionPiece() != null) {
-            piece = new ChessPiece (turn, move.getPromotionPiece());
-            board.addPiece(endPosition,piece);
+    /**
+     * Plays a packed move directly on this game's board without checking that
+     * it is legal, and hands it to the other team. The game remembers what it
+     * needs to take the move back with unmakeMove(), so no undo record is
+     * allocated.
+     *
+     * @param move packed move to perform, whose start square must hold a piece
+     */
+    public void makeMoveUnchecked(int move) {
+        if (undoDepth == undoMoves.length) {
+            undoMoves = Arrays.copyOf(undoMoves, undoDepth * 2);
+            undoCaptured = Arrays.copyOf(undoCaptured, undoDepth * 2);
+            undoTurns = Arrays.copyOf(undoTurns, undoDepth * 2);
         }
 
-        turn = (turn == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+        int end = MoveList.endSquare(move);
+        ChessPiece moved = board.removePiece(MoveList.startSquare(move));
+        ChessPiece.PieceType promotion = MoveList.promotionPiece(move);
+
+        undoMoves[undoDepth] = move;
+        undoCaptured[undoDepth] = board.removePiece(end);
+        undoTurns[undoDepth] = turn;
+        undoDepth++;
+
+        board.putPiece(end, moved.getTeamColor(), (promotion != null) ? promotion : moved.getPieceType());
+        turn = otherTeam(moved.getTeamColor());
+    }
+
+    /**
+     * Takes back the last move made with makeMoveUnchecked(int)
+     */
+    public void unmakeMove() {
+        undoDepth--;
+        int move = undoMoves[undoDepth];
+        int end = MoveList.endSquare(move);
+
+        ChessPiece moved = board.removePiece(end);
+        ChessPiece.PieceType type = (MoveList.promotionPiece(move) != null)
+                ? ChessPiece.PieceType.PAWN : moved.getPieceType();
+        board.putPiece(MoveList.startSquare(move), moved.getTeamColor(), type);
+
+        ChessPiece captured = undoCaptured[undoDepth];
+        if (captured != null) {
+            board.putPiece(end, captured.getTeamColor(), captured.getPieceType());
+            undoCaptured[undoDepth] = null;
+        }
+        turn = undoTurns[undoDepth];
+    }
+
+    private static TeamColor otherTeam(TeamColor team) {
+        return (team == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
     }
 
     /**
@@ -148,39 +484,23 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
-        ChessPosition kingPosition = new ChessPosition(0, 0);
-        ChessPosition currentPosition;
-        ChessPiece piece;
-        TeamColor oppColor = (teamColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
-
-        // Find king position
-        positionLoop:
-        for (int row = 1; row < 9; row++) {
-            for (int col = 1; col < 9; col++) {
-                currentPosition = new ChessPosition(row, col);
-                piece = board.getPiece(currentPosition);
-                if (piece != null) {
-                    if (piece.getPieceType() == ChessPiece.PieceType.KING && piece.getTeamColor() == teamColor) {
-                        kingPosition = currentPosition;
-                        break positionLoop;
-                    }
-                }
-            }
+        // The board keeps each king's square up to date as pieces move
+        int kingSquare = board.kingSquare(teamColor);
+        if (kingSquare < 0) {
+            return false;
         }
+        return board.isAttacked(kingSquare, otherTeam(teamColor));
+    }
 
-        // Check if a piece can capture the king
-        for (int row = 1; row < 9; row++) {
-            for (int col = 1; col < 9; col++) {
-                currentPosition = new ChessPosition(row, col);
-                piece = board.getPiece(currentPosition);
-                if (piece != null && piece.getTeamColor() == oppColor) {
-                    if (kingThreatened(piece, currentPosition, kingPosition)) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
+    /**
+     * Determines if any piece of the given team could capture on a position
+     *
+     * @param position the position to test
+     * @param byColor  the attacking team
+     * @return True if the position is attacked by that team
+     */
+    public boolean isSquareAttacked(ChessPosition position, TeamColor byColor) {
+        return board.isAttacked(ChessBoard.square(position), byColor);
     }
 
     /**
@@ -208,6 +528,9 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
+        if (teamColor == turn) {
+            return getGameStatus() == GameStatus.CHECKMATE;
+        }
         return checkMoves(teamColor, false);
     }
 
@@ -219,9 +542,93 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
+        if (teamColor == turn) {
+            return getGameStatus() == GameStatus.STALEMATE;
+        }
         return checkMoves(teamColor, true);
     }
 
+    /**
+     * The state of the position for the team whose turn it is
+     */
+    public enum GameStatus {
+        ONGOING,
+        CHECK,
+        CHECKMATE,
+        STALEMATE,
+        DRAW_INSUFFICIENT_MATERIAL;
+
+        /**
+         * @return True if the game ends in this position. Insufficient
+         * material is only reported, since the server plays those games on.
+         */
+        public boolean isGameOver() {
+            return this == CHECKMATE || this == STALEMATE;
+        }
+    }
+
+    /**
+     * Works out whether the team to move is in check, checkmate or stalemate,
+     * or, when none of those, whether neither side has enough material left to
+     * checkmate. The answer
+     * is remembered for the current position, so asking again before the next
+     * move costs nothing.
+     *
+     * @return the status of the current position
+     */
+    public GameStatus getGameStatus() {
+        long key = getZobristKey();
+        if (cachedStatus != null && cachedStatusKey == key) {
+            return cachedStatus;
+        }
+
+        boolean inCheck = isInCheck(turn);
+        GameStatus status;
+        if (!hasAnyLegalMove(turn)) {
+            status = inCheck ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
+        }
+        else if (inCheck) {
+            status = GameStatus.CHECK;
+        }
+        else if (hasInsufficientMaterial()) {
+            status = GameStatus.DRAW_INSUFFICIENT_MATERIAL;
+        }
+        else {
+            status = GameStatus.ONGOING;
+        }
+
+        cachedStatus = status;
+        cachedStatusKey = key;
+        return status;
+    }
+
+    /**
+     * Determines if neither team could ever checkmate: only kings are left,
+     * plus at most one knight or bishop, or only bishops that all stand on
+     * squares of the same color
+     */
+    private boolean hasInsufficientMaterial() {
+        long heavy = 0L;
+        long bishops = 0L;
+        long knights = 0L;
+        for (TeamColor color : TeamColor.values()) {
+            heavy |= board.getPieces(color, ChessPiece.PieceType.PAWN)
+                    | board.getPieces(color, ChessPiece.PieceType.ROOK)
+                    | board.getPieces(color, ChessPiece.PieceType.QUEEN);
+            bishops |= board.getPieces(color, ChessPiece.PieceType.BISHOP);
+            knights |= board.getPieces(color, ChessPiece.PieceType.KNIGHT);
+        }
+
+        if (heavy != 0) {
+            return false;
+        }
+        if (Long.bitCount(bishops | knights) <= 1) {
+            return true;
+        }
+        long lightSquares = 0x55AA55AA55AA55AAL;
+        return knights == 0 && ((bishops & lightSquares) == 0 || (bishops & ~lightSquares) == 0);
+    }
+
     /**
      * This function does the checking for
      * isInStalemate and isInCheckmate
@@ -236,22 +643,75 @@ public class ChessGame {
             return false;
         }
 
-        ChessPosition currentPosition;
-        ChessPiece piece;
-
         // Check if the team has any valid moves (and therefore has an escape)
-        for (int row = 1; row < 9; row++) {
-            for (int col = 1; col < 9; col++) {
-                currentPosition = new ChessPosition(row, col);
-                piece = board.getPiece(currentPosition);
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    if (!validMoves(currentPosition).isEmpty()) {
-                        return false;
-                    }
-                }
-            }
+        return !hasAnyLegalMove(teamColor);
+    }
+
+    /**
+     * Counts every sequence of valid moves of the given length from the current
+     * position (a "perft" count). Comparing the counts against published values
+     * for well-known positions is how the move generator is checked at depth.
+     *
+     * @param depth how many moves deep to look
+     * @return the number of positions reached at that depth
+     */
+    public long perft(int depth) {
+        return perft(depth, newMoveLists(depth));
+    }
+
+    /**
+     * Splits the perft count for the given depth by the first move, which is
+     * how a wrong count is narrowed down to the move that causes it.
+     *
+     * @param depth how many moves deep to look, including the first move
+     * @return each valid first move, mapped to the perft count below it
+     */
+    public Map<ChessMove, Long> divide(int depth) {
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        if (depth < 1) {
+            return counts;
+        }
+
+        MoveList[] moveLists = newMoveLists(depth);
+        MoveList moves = moveLists[depth - 1];
+        allLegalMoves(turn, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            makeMoveUnchecked(move);
+            counts.put(MoveList.toChessMove(move), perft(depth - 1, moveLists));
+            unmakeMove();
+        }
+        return counts;
+    }
+
+    private long perft(int depth, MoveList[] moveLists) {
+        if (depth == 0) {
+            return 1;
+        }
+
+        // Each depth gets its own list, so the search doesn't allocate as it goes
+        MoveList moves = moveLists[depth - 1];
+        moves.clear();
+        allLegalMoves(turn, moves);
+        if (depth == 1) {
+            return moves.size();
         }
-        return true;
+
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            makeMoveUnchecked(moves.get(i));
+            nodes += perft(depth - 1, moveLists);
+            unmakeMove();
+        }
+        return nodes;
+    }
+
+    private static MoveList[] newMoveLists(int depth) {
+        MoveList[] moveLists = new MoveList[Math.max(depth, 0)];
+        for (int i = 0; i < moveLists.length; i++) {
+            moveLists[i] = new MoveList();
+        }
+        return moveLists;
     }
 
     /**
@@ -261,6 +721,7 @@ public class ChessGame {
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        cachedStatus = null;
     }
 
     /**
@@ -272,6 +733,195 @@ public class ChessGame {
         return board;
     }
 
+    /**
+     * Writes this game as a FEN record, like
+     * "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1"
+     *
+     * @return the piece placement, side to move, castling rights, en passant
+     * square, halfmove clock and fullmove number, separated by spaces
+     */
+    public String toFen() {
+        StringBuilder fen = new StringBuilder(90);
+        board.appendPlacement(fen);
+        fen.append(turn == TeamColor.WHITE ? " w " : " b ");
+        appendCastling(fen, castlingRights);
+        fen.append(' ');
+        appendSquare(fen, enPassantSquare);
+        fen.append(' ').append(halfmoveClock).append(' ').append(fullmoveNumber);
+        return fen.toString();
+    }
+
+    /**
+     * Reads a game from a FEN record. The halfmove clock and fullmove number
+     * may be left off, in which case they start at 0 and 1.
+     *
+     * @param fen the FEN record
+     * @return a new game in that position
+     * @throws IllegalArgumentException if the record is malformed
+     */
+    public static ChessGame fromFen(String fen) {
+        int placementEnd = fieldEnd(fen, 0);
+        int turnEnd = fieldEnd(fen, placementEnd + 1);
+        int castlingEnd = fieldEnd(fen, turnEnd + 1);
+        int enPassantEnd = fieldEnd(fen, castlingEnd + 1);
+        if (enPassantEnd > fen.length() || turnEnd - placementEnd != 2) {
+            throw new IllegalArgumentException("Bad FEN: " + fen);
+        }
+
+        ChessBoard board = ChessBoard.fromPlacement(fen, 0, placementEnd);
+        TeamColor turn = switch (fen.charAt(placementEnd + 1)) {
+            case 'w' -> TeamColor.WHITE;
+            case 'b' -> TeamColor.BLACK;
+            default -> throw new IllegalArgumentException("Bad FEN side to move: " + fen);
+        };
+        int castling = parseCastling(fen, turnEnd + 1, castlingEnd);
+        int enPassant = parseSquare(fen, castlingEnd + 1, enPassantEnd);
+
+        int halfmove = 0;
+        int fullmove = 1;
+        if (enPassantEnd < fen.length()) {
+            int halfmoveEnd = fieldEnd(fen, enPassantEnd + 1);
+            int fullmoveEnd = fieldEnd(fen, halfmoveEnd + 1);
+            if (fullmoveEnd != fen.length()) {
+                throw new IllegalArgumentException("Bad FEN move counters: " + fen);
+            }
+            halfmove = parseCount(fen, enPassantEnd + 1, halfmoveEnd);
+            fullmove = parseCount(fen, halfmoveEnd + 1, fullmoveEnd);
+        }
+
+        return new ChessGame(board, turn, castling, enPassant, halfmove, fullmove, false);
+    }
+
+    // The index of the space (or end of string) that ends the field starting at begin
+    private static int fieldEnd(String fen, int begin) {
+        if (begin >= fen.length()) {
+            throw new IllegalArgumentException("Bad FEN, missing fields: " + fen);
+        }
+        int space = fen.indexOf(' ', begin);
+        return (space < 0) ? fen.length() : space;
+    }
+
+    private static int parseCount(String fen, int begin, int end) {
+        if (end == begin || end - begin > 9) {
+            throw new IllegalArgumentException("Bad FEN move counter: " + fen);
+        }
+        int count = 0;
+        for (int i = begin; i < end; i++) {
+            char c = fen.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("Bad FEN move counter: " + fen);
+            }
+            count = count * 10 + (c - '0');
+        }
+        return count;
+    }
+
+    static void appendCastling(StringBuilder text, int rights) {
+        if (rights == 0) {
+            text.append('-');
+            return;
+        }
+        for (int bit = 0; bit < CASTLING_LETTERS.length(); bit++) {
+            if ((rights & (1 << bit)) != 0) {
+                text.append(CASTLING_LETTERS.charAt(bit));
+            }
+        }
+    }
+
+    static int parseCastling(String text, int begin, int end) {
+        if (end - begin == 1 && text.charAt(begin) == '-') {
+            return 0;
+        }
+        int rights = 0;
+        for (int i = begin; i < end; i++) {
+            int bit = CASTLING_LETTERS.indexOf(text.charAt(i));
+            if (bit < 0) {
+                throw new IllegalArgumentException("Bad castling rights: " + text.substring(begin, end));
+            }
+            rights |= 1 << bit;
+        }
+        if (rights == 0) {
+            throw new IllegalArgumentException("Bad castling rights: " + text.substring(begin, end));
+        }
+        return rights;
+    }
+
+    static void appendSquare(StringBuilder text, int square) {
+        if (square < 0) {
+            text.append('-');
+            return;
+        }
+        text.append((char) ('a' + square % 8)).append((char) ('1' + square / 8));
+    }
+
+    static int parseSquare(String text, int begin, int end) {
+        if (end - begin == 1 && text.charAt(begin) == '-') {
+            return -1;
+        }
+        if (end - begin != 2) {
+            throw new IllegalArgumentException("Bad square: " + text.substring(begin, end));
+        }
+        int col = text.charAt(begin) - 'a';
+        int row = text.charAt(begin + 1) - '1';
+        if (col < 0 || col > 7 || row < 0 || row > 7) {
+            throw new IllegalArgumentException("Bad square: " + text.substring(begin, end));
+        }
+        return row * 8 + col;
+    }
+
+    /**
+     * Encodes this game in its compact binary form, the same bytes
+     * encode(ByteBuffer) writes
+     *
+     * @return the encoded game, exactly as long as it needs to be
+     */
+    public byte[] encode() {
+        return GameCodec.encode(this);
+    }
+
+    /**
+     * Writes this game in its compact binary form: the pieces, side to move,
+     * castling rights, en passant square, move counters and game over flag
+     *
+     * @param buffer where to write, which needs MAX_ENCODED_SIZE bytes free
+     */
+    public void encode(ByteBuffer buffer) {
+        GameCodec.encode(this, buffer);
+    }
+
+    /**
+     * Reads a game written by encode(ByteBuffer)
+     *
+     * @param buffer the buffer, positioned at the start of the game
+     * @return the game
+     * @throws IllegalArgumentException if the bytes aren't an encoded game
+     */
+    public static ChessGame decode(ByteBuffer buffer) {
+        return GameCodec.decode(buffer);
+    }
+
+    int getCastlingRights() {
+        return castlingRights;
+    }
+
+    int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
+    /**
+     * @return how many moves have been made since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * @return the number of the current full move, starting at 1 and going up after each black move
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
     public void setGameOver(boolean gameOver) {
         this.gameOver = gameOver;
     }
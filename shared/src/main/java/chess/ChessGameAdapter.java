@@ -0,0 +1,106 @@
+package chess;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Writes a ChessGame as a small JSON object without reflection:
+ * <pre>
+ * {"board": "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR", "turn": "WHITE",
+ *  "castling": "KQkq", "enPassant": "-", "halfmove": 0, "fullmove": 1, "gameOver": false}
+ * </pre>
+ * The board is written by ChessBoardAdapter. Fields this adapter doesn't know
+ * are skipped, and missing ones keep their defaults, except that a game
+ * saved without castling rights is read as having none.
+ */
+public final class ChessGameAdapter extends TypeAdapter<ChessGame> {
+
+    private final ChessBoardAdapter boardAdapter = new ChessBoardAdapter();
+
+    @Override
+    public void write(JsonWriter out, ChessGame game) throws IOException {
+        if (game == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("board");
+        boardAdapter.write(out, game.getBoard());
+        out.name("turn").value(game.getTeamTurn().name());
+
+        StringBuilder text = new StringBuilder(4);
+        ChessGame.appendCastling(text, game.getCastlingRights());
+        out.name("castling").value(text.toString());
+        text.setLength(0);
+        ChessGame.appendSquare(text, game.getEnPassantSquare());
+        out.name("enPassant").value(text.toString());
+
+        out.name("halfmove").value(game.getHalfmoveClock());
+        out.name("fullmove").value(game.getFullmoveNumber());
+        out.name("gameOver").value(game.isGameOver());
+        out.endObject();
+    }
+
+    @Override
+    public ChessGame read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        ChessBoard board = null;
+        ChessGame.TeamColor turn = ChessGame.TeamColor.WHITE;
+        int castling = 0;
+        int enPassant = -1;
+        int halfmove = 0;
+        int fullmove = 1;
+        boolean gameOver = false;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "board" -> board = boardAdapter.read(in);
+                case "turn" -> turn = readTurn(in);
+                case "castling" -> castling = readField(in, ChessGame::parseCastling);
+                case "enPassant" -> enPassant = readField(in, ChessGame::parseSquare);
+                case "halfmove" -> halfmove = in.nextInt();
+                case "fullmove" -> fullmove = in.nextInt();
+                case "gameOver" -> gameOver = in.nextBoolean();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        if (board == null) {
+            throw new JsonParseException("Chess game has no board");
+        }
+        return new ChessGame(board, turn, castling, enPassant, halfmove, fullmove, gameOver);
+    }
+
+    private interface FieldParser {
+        int parse(String text, int begin, int end);
+    }
+
+    private static int readField(JsonReader in, FieldParser parser) throws IOException {
+        String text = in.nextString();
+        try {
+            return parser.parse(text, 0, text.length());
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException(e.getMessage(), e);
+        }
+    }
+
+    private static ChessGame.TeamColor readTurn(JsonReader in) throws IOException {
+        String turn = in.nextString();
+        try {
+            return ChessGame.TeamColor.valueOf(turn);
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException("Unknown turn: " + turn, e);
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package chess;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Objects;
 
@@ -25,6 +24,10 @@ public class ChessPiece implements Cloneable {
         return Objects.hash(color, type);
     }
 
+    private static final PieceType[] PROMOTIONS = {
+            PieceType.QUEEN, PieceType.BISHOP, PieceType.ROOK, PieceType.KNIGHT
+    };
+
     private ChessGame.TeamColor color;
     private PieceType type;
 
@@ -78,368 +81,136 @@ public class ChessPiece implements Cloneable {
      * @return Collection of valid moves
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-        Collection<ChessMove> validMoves = new ArrayList<>();
-
         ChessPiece piece = board.getPiece(myPosition);
+        MoveList moves = new MoveList();
+        piece.pieceMoves(board, ChessBoard.square(myPosition), moves);
+        return moves.toChessMoves();
+    }
+
+    /**
+     * Adds the packed moves this piece could make from a square to a list,
+     * without allocating anything for the moves themselves
+     *
+     * @param board  the board this piece is on
+     * @param square the square index this piece is on
+     * @param moves  the list to add the moves to
+     */
+    void pieceMoves(ChessBoard board, int square, MoveList moves) {
+        long occupied = board.getOccupied();
+        long targets;
 
-        if (piece.getPieceType() == PieceType.PAWN) {
-            pawnMoves(validMoves, board, myPosition, piece);
-            return validMoves;
+        if (type == PieceType.PAWN) {
+            pawnMoves(board, square, moves);
+            return;
         }
-        else if (piece.getPieceType() == PieceType.ROOK) {
-            rookMoves(validMoves, board, myPosition, piece);
-            return validMoves;
+        else if (type == PieceType.ROOK) {
+            targets = AttackTables.rookAttacks(square, occupied);
         }
-        else if (piece.getPieceType() == PieceType.BISHOP) {
-            bishopMoves(validMoves, board, myPosition, piece);
-            return validMoves;
+        else if (type == PieceType.BISHOP) {
+            targets = AttackTables.bishopAttacks(square, occupied);
         }
-        else if (piece.getPieceType() == PieceType.QUEEN) {
-            bishopMoves(validMoves, board, myPosition, piece);
-            rookMoves(validMoves, board, myPosition, piece);
-            return validMoves;
+        else if (type == PieceType.QUEEN) {
+            targets = AttackTables.queenAttacks(square, occupied);
         }
-        else if (piece.getPieceType() == PieceType.KING) {
-            kingMoves(validMoves, board, myPosition, piece);
-            return validMoves;
+        else if (type == PieceType.KING) {
+            targets = AttackTables.kingAttacks(square);
         }
-        else if (piece.getPieceType() == PieceType.KNIGHT) {
-            knightMoves(validMoves, board, myPosition, piece);
-            return validMoves;
+        else {
+            targets = AttackTables.knightAttacks(square);
+        }
+
+        // Any attacked square not holding one of our own pieces is a move
+        targets &= ~board.getPieces(color);
+        while (targets != 0) {
+            int target = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            int flags = ((occupied & (1L << target)) != 0) ? MoveList.CAPTURE : 0;
+            moves.add(MoveList.encode(square, target, null, flags));
         }
-        return validMoves;
     }
 
-    private void pawnMoves(Collection<ChessMove> moves, ChessBoard board, ChessPosition startPosition, ChessPiece piece) {
-        int newRow = startPosition.getRow();
-        int newCol = startPosition.getColumn();
+    private void pawnMoves(ChessBoard board, int square, MoveList moves) {
+        long empty = ~board.getOccupied();
         int forward;
         int startRow;
         int promotionRow;
         ChessGame.TeamColor oppColor;
 
-        if (piece.getTeamColor() == ChessGame.TeamColor.WHITE) {
-            forward = 1;
+        if (color == ChessGame.TeamColor.WHITE) {
+            forward = 8;
             startRow = 2;
             promotionRow = 8;
             oppColor = ChessGame.TeamColor.BLACK;
         }
         else {
-            forward = -1;
+            forward = -8;
             startRow = 7;
             promotionRow = 1;
             oppColor = ChessGame.TeamColor.WHITE;
         }
 
-        // Check if this is the first move (move two spaces)
-        if (startPosition.getRow() == startRow) {
-            int move = newRow + (forward * 2);
-            int checkFirst = newRow + forward;
-
-            ChessPosition firstPosition = new ChessPosition(checkFirst, newCol);
-            if (board.getPiece(firstPosition) == null ) {
-                moveforward(moves, board, startPosition, piece, move, newCol, null);
+        // Move one space forward, or two if this is the first move and both are open
+        long targets = 0L;
+        int oneStep = square + forward;
+        if (oneStep >= 0 && oneStep < 64 && (empty & (1L << oneStep)) != 0) {
+            targets |= 1L << oneStep;
+            if (square / 8 + 1 == startRow && (empty & (1L << (oneStep + forward))) != 0) {
+                targets |= 1L << (oneStep + forward);
             }
         }
 
-        // Move one space forward
-        moveforward(moves, board, startPosition, piece, newRow + forward, newCol, null);
-
         // Check if there are any pieces that can be captured diagonally
-        capture(moves, board, startPosition, newRow + forward, newCol + forward, piece, oppColor, null);
-        capture(moves, board, startPosition, newRow + forward, newCol - forward, piece, oppColor, null);
-    }
-
-    private void rookMoves(Collection<ChessMove> moves, ChessBoard board, ChessPosition startPosition, ChessPiece piece) {
-        int newRow = startPosition.getRow();
-        int newCol = startPosition.getColumn();
-
-        // Check forward and backward movements
-        int forward = newRow + 1;
-        while (true) {
-            ChessPosition destinationPosition = new ChessPosition(forward, newCol);
-
-            if (forward < 1 || forward > 8) {
-                break;
-            }
-
-            if (board.getPiece(destinationPosition) == null) {
-                moves.add(new ChessMove(startPosition, destinationPosition, null));
-                ++forward;
-            }
-            else if (board.getPiece(destinationPosition).getTeamColor() != piece.getTeamColor()) {
-                capture(moves, board, startPosition, forward, newCol, piece, board.getPiece(destinationPosition).getTeamColor(), null);
-                break;
-            }
-            else {
-                break;
-            }
-        }
-
-        forward = newRow - 1;
-        while (true) {
-            ChessPosition destinationPosition = new ChessPosition(forward, newCol);
-
-            if (forward < 1 || forward > 8) {
-                break;
-            }
-
-            if (board.getPiece(destinationPosition) == null) {
-                moves.add(new ChessMove(startPosition, destinationPosition, null));
-                --forward;
-            }
-            else if (board.getPiece(destinationPosition).getTeamColor() != piece.getTeamColor()) {
-                capture(moves, board, startPosition, forward, newCol, piece, board.getPiece(destinationPosition).getTeamColor(), null);
-                break;
-            }
-            else {
-                break;
-            }
-        }
-
-        // Check right movements
-        int right = newCol + 1;
-        while (true) {
-            ChessPosition destinationPosition = new ChessPosition(newRow, right);
-
-            if (right < 1 || right > 8) {
-                break;
-            }
-
-            if (board.getPiece(destinationPosition) == null) {
-                moves.add(new ChessMove(startPosition, destinationPosition, null));
-                ++right;
-            }
-            else if (board.getPiece(destinationPosition).getTeamColor() != piece.getTeamColor()) {
-                capture(moves, board, startPosition, newRow, right, piece, board.getPiece(destinationPosition).getTeamColor(), null);
-                break;
-            }
-            else {
-                break;
-            }
-        }
-
-        // Check left movements
-        int left = newCol - 1;
-        while (true) {
-            ChessPosition destinationPosition = new ChessPosition(newRow, left);
-
-            if (left < 1 || left > 8) {
-                break;
-            }
-
-            if (board.getPiece(destinationPosition) == null) {
-                moves.add(new ChessMove(startPosition, destinationPosition, null));
-                --left;
-            }
-            else if (board.getPiece(destinationPosition).getTeamColor() != piece.getTeamColor()) {
-                capture(moves, board, startPosition, newRow, left, piece, board.getPiece(destinationPosition).getTeamColor(), null);
-                break;
-            }
-            else {
-                break;
-            }
-        }
-    }
-
-    private void bishopMoves(Collection<ChessMove> moves, ChessBoard board, ChessPosition startPosition, ChessPiece piece) {
-        int newRow = startPosition.getRow();
-        int newCol = startPosition.getColumn();
-
-        // Check top right corner diagonal
-        int forward = newRow + 1;
-        int right = newCol + 1;
-        while (true) {
-            ChessPosition destinationPosition = new ChessPosition(forward, right);
-
-            if (forward < 1 || forward > 8 || right < 1 || right > 8) {
-                break;
-            }
-
-            if (board.getPiece(destinationPosition) == null) {
-                moves.add(new ChessMove(startPosition, destinationPosition, null));
-                ++forward;
-                ++right;
-            }
-            else if (board.getPiece(destinationPosition).getTeamColor() != piece.getTeamColor()) {
-                capture(moves, board, startPosition, forward, right, piece, board.getPiece(destinationPosition).getTeamColor(), null);
-                break;
-            }
-            else {
-                break;
-            }
-        }
-
-        // Check top left corner diagonal
-        forward = newRow + 1;
-        int left = newCol - 1;
-        while (true) {
-            ChessPosition destinationPosition = new ChessPosition(forward, left);
-
-            if (forward < 1 || forward > 8 || left < 1 || left > 8) {
-                break;
-            }
-
-            if (board.getPiece(destinationPosition) == null) {
-                moves.add(new ChessMove(startPosition, destinationPosition, null));
-                ++forward;
-                --left;
-            }
-            else if (board.getPiece(destinationPosition).getTeamColor() != piece.getTeamColor()) {
-                capture(moves, board, startPosition, forward, left, piece, board.getPiece(destinationPosition).getTeamColor(), null);
-                break;
-            }
-            else {
-                break;
-            }
-        }
-
-        // Check bottom right movements
-        int backward = newRow - 1;
-        right = newCol + 1;
-        while (true) {
-            ChessPosition destinationPosition = new ChessPosition(backward, right);
-
-            if (backward < 1 || backward > 8 || right < 1 || right > 8) {
-                break;
-            }
-
-            if (board.getPiece(destinationPosition) == null) {
-                moves.add(new ChessMove(startPosition, destinationPosition, null));
-                --backward;
-                ++right;
-            }
-            else if (board.getPiece(destinationPosition).getTeamColor() != piece.getTeamColor()) {
-                capture(moves, board, startPosition, backward, right, piece, board.getPiece(destinationPosition).getTeamColor(), null);
-                break;
-            }
-            else {
-                break;
-            }
-        }
-
-        // Check bottom left movements
-        backward = newRow - 1;
-        left = newCol - 1;
-        while (true) {
-            ChessPosition destinationPosition = new ChessPosition(backward, left);
-
-            if (backward < 1 || backward > 8 || left < 1 || left > 8) {
-                break;
-            }
-
-            if (board.getPiece(destinationPosition) == null) {
-                moves.add(new ChessMove(startPosition, destinationPosition, null));
-                --backward;
-                --left;
-            }
-            else if (board.getPiece(destinationPosition).getTeamColor() != piece.getTeamColor()) {
-                capture(moves, board, startPosition, backward, left, piece, board.getPiece(destinationPosition).getTeamColor(), null);
-                break;
+        long captures = AttackTables.pawnAttacks(color, square) & board.getPieces(oppColor);
+        targets |= captures;
+
+        while (targets != 0) {
+            int target = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            int flags = ((captures & (1L << target)) != 0) ? MoveList.CAPTURE : 0;
+            if (target / 8 + 1 == promotionRow) {
+                for (PieceType promotion : PROMOTIONS) {
+                    moves.add(MoveList.encode(square, target, promotion, flags));
+                }
             }
             else {
-                break;
+                moves.add(MoveList.encode(square, target, null, flags));
             }
         }
     }
 
-    private void kingMoves(Collection<ChessMove> moves, ChessBoard board, ChessPosition startPosition, ChessPiece piece) {
-        int newRow = startPosition.getRow();
-        int newCol = startPosition.getColumn();
-
-        int[][] kingPositions = {
-                {0, 1}, {0, -1}, {1, 0}, {-1, 0},
-                {1, 1}, {1, -1}, {-1, 1}, {-1, -1}
-        };
-
-        checkPositions(kingPositions, newRow, newCol, board, startPosition, piece, moves);
-    }
-
-    private void knightMoves(Collection<ChessMove> moves, ChessBoard board, ChessPosition startPosition, ChessPiece piece) {
-        int newRow = startPosition.getRow();
-        int newCol = startPosition.getColumn();
-
-        int[][] knightPositions = {
-                {2, 1}, {2, -1}, {-2, 1}, {-2, -1},
-                {1, 2}, {1, -2}, {-1, 2}, {-1, -2}
-        };
-
-        checkPositions(knightPositions, newRow, newCol, board, startPosition, piece, moves);
-    }
-
+    /**
+     * Adds a move for each offset from (newRow, newCol) that stays on the
+     * board and lands on an empty square or an enemy piece, with all four
+     * promotions for a pawn reaching the last row
+     *
+     * @deprecated pieceMoves finds moves with the attack tables now. This is
+     * only kept because the signatures in this class can't change.
+     */
+    @Deprecated
     public void checkPositions(int[][] positions, int newRow, int newCol,
                                ChessBoard board, ChessPosition startPosition,
                                ChessPiece piece, Collection<ChessMove> moves) {
+        int promotionRow = (piece.getTeamColor() == ChessGame.TeamColor.WHITE) ? 8 : 1;
         for (int[] position : positions) {
             int destinationRow = newRow + position[0];
             int destinationCol = newCol + position[1];
-
             if (destinationRow < 1 || destinationRow > 8 || destinationCol < 1 || destinationCol > 8) {
                 continue;
             }
 
-            ChessPosition destinationPosition = new ChessPosition(destinationRow, destinationCol);
-
-            if (board.getPiece(destinationPosition) == null) {
-                moveforward(moves, board, startPosition, piece, destinationRow, destinationCol, null);
-            } else if (board.getPiece(destinationPosition).getTeamColor() != piece.getTeamColor()) {
-                capture(moves, board, startPosition, destinationRow, destinationCol, piece, board.getPiece(destinationPosition).getTeamColor(), null);
-            }
-        }
-    }
-
-    private void moveforward(Collection<ChessMove> moves, ChessBoard board,
-                             ChessPosition startPosition, ChessPiece piece,
-                             int newRow, int newCol, ChessPiece.PieceType promotion) {
-        // Check if position is not off the board
-        if (newRow >= 1 && newRow <= 8 && newCol >= 1 && newCol <= 8) {
-            // Check if there is a chess piece in front of the piece
-            ChessPosition destinationPosition = new ChessPosition(newRow, newCol);
+            ChessPosition destinationPosition = ChessPosition.of(destinationRow, destinationCol);
             ChessPiece destinationPiece = board.getPiece(destinationPosition);
-            // Check if it can be promoted
-            if (piece.getPieceType() == PieceType.PAWN
-                    && ((piece.getTeamColor() == ChessGame.TeamColor.WHITE && newRow == 8)
-                            || (piece.getTeamColor() == ChessGame.TeamColor.BLACK && newRow == 1))
-                    && destinationPiece == null) {
-                promote(moves, startPosition, destinationPosition);
-            }
-            // Can't be promoted
-            else if (destinationPiece == null) {
-                ChessMove validMove = new ChessMove(startPosition, destinationPosition, promotion);
-                moves.add(validMove);
+            if (destinationPiece != null && destinationPiece.getTeamColor() == piece.getTeamColor()) {
+                continue;
             }
-        }
-    }
-
-    private void promote(Collection<ChessMove> moves, ChessPosition startPosition, ChessPosition destinationPosition) {
-        ChessMove validMove = new ChessMove(startPosition, destinationPosition, PieceType.QUEEN);
-        moves.add(validMove);
-        validMove = new ChessMove(startPosition, destinationPosition, PieceType.BISHOP);
-        moves.add(validMove);
-        validMove = new ChessMove(startPosition, destinationPosition, PieceType.ROOK);
-        moves.add(validMove);
-        validMove = new ChessMove(startPosition, destinationPosition, PieceType.KNIGHT);
-        moves.add(validMove);
-    }
 
-    private void capture(Collection<ChessMove> moves, ChessBoard board,
-                         ChessPosition startPosition, int newRow, int newCol,
-                         ChessPiece piece, ChessGame.TeamColor enemyColor,
-                         ChessPiece.PieceType promotion) {
-        // Check if position is not off the board
-        if (newRow >= 1 && newRow <= 8 && newCol >= 1 && newCol <= 8) {
-            // Check if there is a chess piece in front of the piece
-            ChessPosition destinationPosition = new ChessPosition(newRow, newCol);
-            ChessPiece destinationPiece = board.getPiece(destinationPosition);
-            if (destinationPiece != null && destinationPiece.getTeamColor() == enemyColor) {
-                if (piece.getPieceType() == PieceType.PAWN
-                        && ((piece.getTeamColor() == ChessGame.TeamColor.WHITE && newRow == 8)
-                        || (piece.getTeamColor() == ChessGame.TeamColor.BLACK && newRow == 1))) {
-                    promote(moves, startPosition, destinationPosition);
-                    return;
+            if (piece.getPieceType() == PieceType.PAWN && destinationRow == promotionRow) {
+                for (PieceType promotion : PROMOTIONS) {
+                    moves.add(new ChessMove(startPosition, destinationPosition, promotion));
                 }
-                ChessMove validMove = new ChessMove(startPosition, destinationPosition, promotion);
-                moves.add(validMove);
+            }
+            else {
+                moves.add(new ChessMove(startPosition, destinationPosition, null));
             }
         }
     }
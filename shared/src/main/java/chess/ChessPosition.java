@@ -1,7 +1,5 @@
 package chess;
 
-import java.util.Objects;
-
 /**
  * Represents a single square position on a chess board
  * <p>
@@ -11,6 +9,9 @@ import java.util.Objects;
 public class ChessPosition {
     @Override
     public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
         if (o == null || getClass() != o.getClass()) {
             return false;
         }
@@ -20,11 +21,21 @@ public class ChessPosition {
 
     @Override
     public int hashCode() {
-        return Objects.hash(row, col);
+        // Plain arithmetic so hashing never allocates; distinct for every on-board square
+        return 31 * row + col;
+    }
+
+    // One shared instance per on-board square, indexed by square
+    private static final ChessPosition[] SQUARES = new ChessPosition[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            SQUARES[square] = new ChessPosition(square / 8 + 1, square % 8 + 1);
+        }
     }
 
-    private int row;
-    private int col;
+    private final int row;
+    private final int col;
 
     @Override
     public String toString() {
@@ -37,6 +48,31 @@ public class ChessPosition {
         this.col = col;
     }
 
+    /**
+     * Gets the shared position for a square. Positions are immutable, so the
+     * same instance can be handed out everywhere instead of allocating a new one.
+     *
+     * @param row the row, 1 through 8
+     * @param col the column, 1 through 8
+     * @return the shared position, or a new one if the square is off the board
+     */
+    public static ChessPosition of(int row, int col) {
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            return new ChessPosition(row, col);
+        }
+        return SQUARES[(row - 1) * 8 + col - 1];
+    }
+
+    /**
+     * Gets the shared position for a square index
+     *
+     * @param square the square index, 0 (a1) through 63 (h8)
+     * @return the shared position
+     */
+    public static ChessPosition ofSquare(int square) {
+        return SQUARES[square];
+    }
+
     /**
      * @return which row this position is in
      * 1 codes for the bottom row
@@ -52,4 +88,11 @@ public class ChessPosition {
     public int getColumn() {
         return col;
     }
+
+    /**
+     * @return this position's square index, 0 for a1 up through 63 for h8
+     */
+    public int getSquare() {
+        return (row - 1) * 8 + col - 1;
+    }
 }
@@ -0,0 +1,148 @@
+package chess;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Packs a ChessGame into a few dozen bytes for storage and transfer.
+ * <p>
+ * The layout is a version byte, the set of occupied squares as an 8-byte
+ * bitboard, then one 4-bit piece code (the board's color/type index) for
+ * each occupied square from a1 up to h8, two to a byte. After the pieces
+ * come a flag byte (side to move, game over, castling rights), the en
+ * passant square plus one (0 for none), and the halfmove clock and fullmove
+ * number as unsigned varints. The starting position takes 29 bytes.
+ */
+final class GameCodec {
+
+    static final byte VERSION = 1;
+
+    /**
+     * The most bytes an encoded game can take: 32 pieces and two 5-byte varints
+     */
+    static final int MAX_SIZE = 1 + 8 + 16 + 2 + 5 + 5;
+
+    private static final int BLACK_TO_MOVE = 1;
+    private static final int GAME_OVER = 2;
+    private static final int CASTLING_SHIFT = 4;
+
+    private static final ChessGame.TeamColor[] COLORS = ChessGame.TeamColor.values();
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private GameCodec() {
+    }
+
+    static byte[] encode(ChessGame game) {
+        ByteBuffer out = ByteBuffer.allocate(MAX_SIZE);
+        encode(game, out);
+        return Arrays.copyOf(out.array(), out.position());
+    }
+
+    static void encode(ChessGame game, ByteBuffer out) {
+        ChessBoard board = game.getBoard();
+        long occupied = board.getOccupied();
+        if (Long.bitCount(occupied) > 32) {
+            throw new IllegalArgumentException("Can't encode a board with more than 32 pieces");
+        }
+
+        out.put(VERSION);
+        out.putLong(occupied);
+
+        int pending = -1;
+        for (long set = occupied; set != 0; set &= set - 1) {
+            ChessPiece piece = board.getPiece(Long.numberOfTrailingZeros(set));
+            int code = piece.getTeamColor().ordinal() * TYPES.length + piece.getPieceType().ordinal();
+            if (pending < 0) {
+                pending = code;
+            }
+            else {
+                out.put((byte) (pending | (code << 4)));
+                pending = -1;
+            }
+        }
+        if (pending >= 0) {
+            out.put((byte) pending);
+        }
+
+        int flags = (game.getTeamTurn() == ChessGame.TeamColor.BLACK ? BLACK_TO_MOVE : 0)
+                | (game.isGameOver() ? GAME_OVER : 0)
+                | (game.getCastlingRights() << CASTLING_SHIFT);
+        out.put((byte) flags);
+        out.put((byte) (game.getEnPassantSquare() + 1));
+        putVarint(out, game.getHalfmoveClock());
+        putVarint(out, game.getFullmoveNumber());
+    }
+
+    static ChessGame decode(ByteBuffer in) {
+        try {
+            return read(in);
+        }
+        catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Encoded game is cut short");
+        }
+    }
+
+    private static ChessGame read(ByteBuffer in) {
+        byte version = in.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unknown game encoding version " + version);
+        }
+
+        long occupied = in.getLong();
+        if (Long.bitCount(occupied) > 32) {
+            throw new IllegalArgumentException("Encoded board has more than 32 pieces");
+        }
+
+        ChessBoard board = new ChessBoard();
+        int packed = 0;
+        boolean high = false;
+        for (long set = occupied; set != 0; set &= set - 1) {
+            int code;
+            if (high) {
+                code = (packed >>> 4) & 0xF;
+            }
+            else {
+                packed = in.get();
+                code = packed & 0xF;
+            }
+            high = !high;
+            if (code >= 2 * TYPES.length) {
+                throw new IllegalArgumentException("Unknown piece code " + code);
+            }
+            board.putPiece(Long.numberOfTrailingZeros(set), COLORS[code / TYPES.length], TYPES[code % TYPES.length]);
+        }
+
+        int flags = in.get() & 0xFF;
+        int enPassant = (in.get() & 0xFF) - 1;
+        if (enPassant > 63) {
+            throw new IllegalArgumentException("Bad en passant square " + enPassant);
+        }
+        int halfmove = getVarint(in);
+        int fullmove = getVarint(in);
+
+        ChessGame.TeamColor turn = ((flags & BLACK_TO_MOVE) != 0) ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        return new ChessGame(board, turn, flags >>> CASTLING_SHIFT, enPassant, halfmove, fullmove,
+                (flags & GAME_OVER) != 0);
+    }
+
+    private static void putVarint(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static int getVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint is too long");
+    }
+}
@@ -0,0 +1,146 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A growable list of moves packed into ints, for generating moves without
+ * allocating a ChessMove and two ChessPositions per move. A list can be
+ * cleared and reused, and only grows its backing array when it runs out of
+ * room.
+ * <p>
+ * A packed move holds, from the lowest bit up: the start square (6 bits), the
+ * end square (6 bits), the promotion piece (3 bits, 0 for none, otherwise the
+ * PieceType ordinal plus one) and flag bits. Squares are indexed with 0 for a1
+ * and 63 for h8.
+ */
+public final class MoveList {
+
+    /**
+     * Flag set on moves that capture a piece
+     */
+    public static final int CAPTURE = 1 << 15;
+
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(64);
+    }
+
+    public MoveList(int capacity) {
+        moves = new int[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Packs a move into an int
+     *
+     * @param start     the start square index
+     * @param end       the end square index
+     * @param promotion the piece to promote to, or null if no promotion
+     * @param flags     any of the flag bits, such as CAPTURE
+     * @return the packed move
+     */
+    public static int encode(int start, int end, ChessPiece.PieceType promotion, int flags) {
+        int promotionBits = (promotion == null) ? 0 : promotion.ordinal() + 1;
+        return start | (end << 6) | (promotionBits << 12) | flags;
+    }
+
+    /**
+     * Packs a ChessMove into an int. The CAPTURE flag is not set, since the
+     * move alone doesn't say whether it captures.
+     */
+    public static int encode(ChessMove move) {
+        return encode(ChessBoard.square(move.getStartPosition()), ChessBoard.square(move.getEndPosition()),
+                move.getPromotionPiece(), 0);
+    }
+
+    public static int startSquare(int move) {
+        return move & 0x3F;
+    }
+
+    public static int endSquare(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    /**
+     * @return the piece a packed move promotes to, or null if it doesn't promote
+     */
+    public static ChessPiece.PieceType promotionPiece(int move) {
+        int promotionBits = (move >>> 12) & 0x7;
+        return (promotionBits == 0) ? null : PIECE_TYPES[promotionBits - 1];
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    /**
+     * Unpacks a move into a ChessMove
+     */
+    public static ChessMove toChessMove(int move) {
+        return new ChessMove(ChessPosition.ofSquare(startSquare(move)),
+                ChessPosition.ofSquare(endSquare(move)), promotionPiece(move));
+    }
+
+    public void add(int move) {
+        if (size == moves.length) {
+            int[] grown = new int[moves.length * 2];
+            System.arraycopy(moves, 0, grown, 0, size);
+            moves = grown;
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        moves[index] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Drops every move from the given index on
+     *
+     * @param newSize how many moves to keep
+     */
+    public void truncate(int newSize) {
+        if (newSize < size) {
+            size = Math.max(newSize, 0);
+        }
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Unpacks every move in the list
+     *
+     * @return a new list of ChessMoves in the same order
+     */
+    public List<ChessMove> toChessMoves() {
+        List<ChessMove> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(toChessMove(moves[i]));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,61 @@
+package chess;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Command line perft runner for measuring move generator speed and checking
+ * its counts, from the starting position or from a FEN record.
+ * <p>
+ * Usage: {@code PerftMain <depth> [divide] [fen]}
+ */
+public class PerftMain {
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: PerftMain <depth> [divide] [fen]");
+            return;
+        }
+
+        int depth;
+        try {
+            depth = Integer.parseInt(args[0]);
+        } catch (NumberFormatException e) {
+            System.out.println("Depth must be a number: " + args[0]);
+            return;
+        }
+        boolean divide = args.length > 1 && args[1].equalsIgnoreCase("divide");
+
+        // Whatever follows is a FEN record, which may have been split on its spaces
+        int fenStart = divide ? 2 : 1;
+        ChessGame game;
+        if (args.length > fenStart) {
+            String fen = String.join(" ", Arrays.copyOfRange(args, fenStart, args.length));
+            try {
+                game = ChessGame.fromFen(fen);
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage());
+                return;
+            }
+        }
+        else {
+            game = new ChessGame();
+        }
+        long start = System.nanoTime();
+        long nodes;
+
+        if (divide) {
+            nodes = 0;
+            for (Map.Entry<ChessMove, Long> entry : game.divide(depth).entrySet()) {
+                System.out.println(entry.getKey() + ": " + entry.getValue());
+                nodes += entry.getValue();
+            }
+        }
+        else {
+            nodes = game.perft(depth);
+        }
+
+        long elapsed = Math.max(System.nanoTime() - start, 1);
+        System.out.printf("Depth %d: %d nodes in %.3f s (%,.0f nodes/s)%n",
+                depth, nodes, elapsed / 1e9, nodes * 1e9 / elapsed);
+    }
+}
@@ -0,0 +1,71 @@
+package chess;
+
+/**
+ * Random 64-bit keys for Zobrist hashing. A position's key is the XOR of the
+ * key for every piece on its square, plus keys for the side to move, the
+ * castling rights and the en passant file. Since XOR undoes itself, moving a
+ * piece only takes a couple of XORs to update the key.
+ * <p>
+ * The keys come from a fixed seed, so the same position has the same key in
+ * every run, on the server and on the client.
+ */
+final class Zobrist {
+
+    private static final long[][] PIECE_SQUARE = new long[12][64];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT_FILE = new long[8];
+
+    static final long BLACK_TO_MOVE;
+
+    static {
+        long[] state = {0x5D4A3C2B1E0F9687L};
+        for (long[] squares : PIECE_SQUARE) {
+            for (int square = 0; square < 64; square++) {
+                squares[square] = next(state);
+            }
+        }
+        for (int rights = 0; rights < CASTLING.length; rights++) {
+            CASTLING[rights] = next(state);
+        }
+        for (int file = 0; file < EN_PASSANT_FILE.length; file++) {
+            EN_PASSANT_FILE[file] = next(state);
+        }
+        BLACK_TO_MOVE = next(state);
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * @param pieceIndex the board's index for a color/type pair, 0 through 11
+     * @param square     the square index
+     * @return the key for that piece standing on that square
+     */
+    static long piece(int pieceIndex, int square) {
+        return PIECE_SQUARE[pieceIndex][square];
+    }
+
+    /**
+     * @param rights the castling rights as a 4-bit set
+     * @return the key for those castling rights, which is 0 when there are none
+     */
+    static long castling(int rights) {
+        return (rights == 0) ? 0L : CASTLING[rights];
+    }
+
+    /**
+     * @param file the en passant file, 0 through 7, or -1 for none
+     * @return the key for that en passant file, which is 0 when there is none
+     */
+    static long enPassant(int file) {
+        return (file < 0) ? 0L : EN_PASSANT_FILE[file];
+    }
+
+    // SplitMix64, written out so the sequence never depends on the JDK
+    private static long next(long[] state) {
+        long z = (state[0] += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,56 @@
+package model;
+
+/**
+ * Which games to list, and where to start. Games are listed in gameID order,
+ * so a page starts right after the last gameID of the page before it.
+ *
+ * @param after     only list games with a higher gameID than this, or 0 to start at the beginning
+ * @param limit     the most games to list
+ * @param openSeats only list games with at least one seat open
+ * @param player    only list games this user plays in, or null for any games
+ * @param finished  only list finished games if true, unfinished ones if false, or both if null
+ */
+public record GameQuery(int after, int limit, boolean openSeats, String player, Boolean finished) {
+
+    /**
+     * The page size when a request doesn't give one. A caller that wants every
+     * game has to follow each page's next value until it is null; without
+     * that, only the first DEFAULT_LIMIT games come back.
+     */
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 500;
+
+    /**
+     * @return a query for the first page of every game
+     */
+    public static GameQuery firstPage() {
+        return new GameQuery(0, DEFAULT_LIMIT, false, null, null);
+    }
+
+    /**
+     * @return the same query, starting after a different game
+     */
+    public GameQuery startingAfter(int gameID) {
+        return new GameQuery(gameID, limit, openSeats, player, finished);
+    }
+
+    /**
+     * @return the same query, with a different page size
+     */
+    public GameQuery withLimit(int limit) {
+        return new GameQuery(after, limit, openSeats, player, finished);
+    }
+
+    /**
+     * @return whether a game passes this query's filters, ignoring where the page starts
+     */
+    public boolean matches(GameSummary summary) {
+        if (openSeats && summary.whiteUsername() != null && summary.blackUsername() != null) {
+            return false;
+        }
+        if (player != null && !player.equals(summary.whiteUsername()) && !player.equals(summary.blackUsername())) {
+            return false;
+        }
+        return finished == null || finished == summary.gameOver();
+    }
+}
@@ -0,0 +1,12 @@
+package model;
+
+/**
+ * What the game list shows about a game, without its board
+ */
+public record GameSummary(int gameID, String whiteUsername, String blackUsername, String gameName, boolean gameOver) {
+
+    public static GameSummary of(GameData gameData) {
+        return new GameSummary(gameData.gameID(), gameData.whiteUsername(), gameData.blackUsername(),
+                gameData.gameName(), gameData.game().isGameOver());
+    }
+}
@@ -1,4 +1,6 @@
 package result;
 
-public record ListGamesRequest(String authToken) {
+import model.GameQuery;
+
+public record ListGamesRequest(String authToken, GameQuery query) {
 }
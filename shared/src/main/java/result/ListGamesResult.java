@@ -1,8 +1,12 @@
 package result;
 
-import model.GameData;
+import model.GameSummary;
 
 import java.util.Collection;
 
-public record ListGamesResult(Collection<GameData> games) {
+/**
+ * @param games one page of games
+ * @param next  the after value for the next page, or null if this is the last page
+ */
+public record ListGamesResult(Collection<GameSummary> games, Integer next) {
 }
@@ -0,0 +1,75 @@
+package serialization;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import model.GameData;
+import result.*;
+import websocket.commands.MakeMoveCommand;
+import websocket.commands.UserGameCommand;
+import websocket.messages.ErrorMessage;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.NotificationMessage;
+import websocket.messages.ServerMessage;
+
+import java.io.Reader;
+
+/**
+ * The one Gson instance the server, the client and the DAOs share.
+ * <p>
+ * Building a Gson, and the reflection data behind each type it handles, is
+ * far slower than using one, so it is done once here instead of on every
+ * request. Gson instances are thread safe, so the shared one can be used
+ * from any number of handler threads at once.
+ * <p>
+ * Reading a UserGameCommand or a ServerMessage gives back the subclass named
+ * by its commandType or serverMessageType field, from a single parse.
+ */
+public final class Serializer {
+
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapterFactory(TypeFieldAdapterFactory.of(UserGameCommand.class, "commandType")
+                    .registerSubtype(MakeMoveCommand.class, UserGameCommand.CommandType.MAKE_MOVE.name()))
+            .registerTypeAdapterFactory(TypeFieldAdapterFactory.of(ServerMessage.class, "serverMessageType")
+                    .registerSubtype(LoadGameMessage.class, ServerMessage.ServerMessageType.LOAD_GAME.name())
+                    .registerSubtype(ErrorMessage.class, ServerMessage.ServerMessageType.ERROR.name())
+                    .registerSubtype(NotificationMessage.class, ServerMessage.ServerMessageType.NOTIFICATION.name()))
+            .create();
+
+    static {
+        // Build the adapters for the types sent on every request up front,
+        // so the first request doesn't pay for it
+        for (Class<?> type : new Class<?>[]{
+                ChessGame.class, ChessMove.class, GameData.class,
+                UserGameCommand.class, MakeMoveCommand.class,
+                ServerMessage.class, LoadGameMessage.class, ErrorMessage.class, NotificationMessage.class,
+                RegisterRequest.class, RegisterResult.class, LoginRequest.class, LoginResult.class,
+                LogoutResult.class, CreateGameRequest.class, CreateGameResult.class,
+                JoinGameRequest.class, JoinGameResult.class, ListGamesResult.class, ClearResult.class}) {
+            GSON.getAdapter(type);
+        }
+    }
+
+    private Serializer() {
+    }
+
+    /**
+     * @return the shared Gson instance
+     */
+    public static Gson gson() {
+        return GSON;
+    }
+
+    public static String toJson(Object object) {
+        return GSON.toJson(object);
+    }
+
+    public static <T> T fromJson(String json, Class<T> type) {
+        return GSON.fromJson(json, type);
+    }
+
+    public static <T> T fromJson(Reader reader, Class<T> type) {
+        return GSON.fromJson(reader, type);
+    }
+}
@@ -0,0 +1,109 @@
+package serialization;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads a class hierarchy whose JSON carries its own type in a field, like
+ * the commandType of a UserGameCommand. Asking Gson for the base type reads
+ * the JSON once, looks at the type field and builds the matching subclass,
+ * so callers don't have to parse the message once for its type and again
+ * for its contents.
+ * <p>
+ * Type field values that have no registered subclass are read as the base
+ * type. Values are written as their own class, which already carries the
+ * type field.
+ *
+ * @param <T> the base type
+ */
+public final class TypeFieldAdapterFactory<T> implements TypeAdapterFactory {
+
+    private final Class<T> baseType;
+    private final String typeField;
+    private final Map<String, Class<? extends T>> subtypes = new HashMap<>();
+
+    private TypeFieldAdapterFactory(Class<T> baseType, String typeField) {
+        this.baseType = baseType;
+        this.typeField = typeField;
+    }
+
+    /**
+     * @param baseType  the type callers ask Gson for
+     * @param typeField the name of the JSON field holding each value's type
+     */
+    public static <T> TypeFieldAdapterFactory<T> of(Class<T> baseType, String typeField) {
+        return new TypeFieldAdapterFactory<>(baseType, typeField);
+    }
+
+    /**
+     * Reads values whose type field holds the given label as the given subclass
+     *
+     * @return this factory, so registrations can be chained
+     */
+    public TypeFieldAdapterFactory<T> registerSubtype(Class<? extends T> subtype, String label) {
+        subtypes.put(label, subtype);
+        return this;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <R> TypeAdapter<R> create(Gson gson, TypeToken<R> type) {
+        if (type.getRawType() != baseType) {
+            return null;
+        }
+
+        TypeAdapter<T> baseAdapter = gson.getDelegateAdapter(this, TypeToken.get(baseType));
+        Map<String, TypeAdapter<? extends T>> adapters = new HashMap<>();
+        for (Map.Entry<String, Class<? extends T>> subtype : subtypes.entrySet()) {
+            adapters.put(subtype.getKey(), gson.getAdapter(subtype.getValue()));
+        }
+
+        return (TypeAdapter<R>) new TypeAdapter<T>() {
+            @Override
+            public void write(JsonWriter out, T value) throws IOException {
+                if (value == null || value.getClass() == baseType) {
+                    baseAdapter.write(out, value);
+                    return;
+                }
+                writeAs(gson.getAdapter(value.getClass()), out, value);
+            }
+
+            @Override
+            public T read(JsonReader in) throws IOException {
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    return null;
+                }
+                JsonElement json = JsonParser.parseReader(in);
+                if (!json.isJsonObject()) {
+                    throw new JsonParseException("Expected a " + baseType.getSimpleName() + " object");
+                }
+
+                JsonElement label = ((JsonObject) json).get(typeField);
+                TypeAdapter<? extends T> adapter = null;
+                if (label != null && label.isJsonPrimitive()) {
+                    adapter = adapters.get(label.getAsString());
+                }
+                return (adapter == null) ? baseAdapter.fromJsonTree(json) : adapter.fromJsonTree(json);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> void writeAs(TypeAdapter<V> adapter, JsonWriter out, Object value) throws IOException {
+        adapter.write(out, (V) value);
+    }
+}
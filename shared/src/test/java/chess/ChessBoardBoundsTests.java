@@ -0,0 +1,28 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ChessBoardBoundsTests {
+
+    @Test
+    public void onBoardPositive() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+
+        Assertions.assertEquals(ChessPiece.PieceType.ROOK, board.getPiece(new ChessPosition(1, 1)).getPieceType());
+        Assertions.assertEquals(ChessPiece.PieceType.ROOK, board.getPiece(new ChessPosition(8, 8)).getPieceType());
+    }
+
+    @Test
+    public void offBoardNegative() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+
+        // Row 9 would be square 64, which a shift by 64 turns back into a1
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> board.getPiece(new ChessPosition(9, 1)));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> board.getPiece(new ChessPosition(1, 0)));
+        Assertions.assertThrows(IndexOutOfBoundsException.class,
+                () -> board.addPiece(new ChessPosition(0, 5), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING)));
+    }
+}
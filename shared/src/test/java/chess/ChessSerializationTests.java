@@ -0,0 +1,90 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ChessSerializationTests {
+
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR";
+
+    @Test
+    public void gameRoundTripPositive() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+        game.setGameOver(true);
+
+        String json = new Gson().toJson(game);
+        Assertions.assertEquals("{\"board\":\"rnbqkb1r/pppppppp/5n2/8/4P3/8/PPPP1PPP/RNBQKBNR\","
+                + "\"turn\":\"WHITE\",\"castling\":\"KQkq\",\"enPassant\":\"-\",\"halfmove\":1,\"fullmove\":2,"
+                + "\"gameOver\":true}", json);
+
+        ChessGame copy = new Gson().fromJson(json, ChessGame.class);
+        Assertions.assertEquals(game, copy);
+        Assertions.assertEquals(game.getZobristKey(), copy.getZobristKey());
+        Assertions.assertTrue(copy.isGameOver());
+        Assertions.assertEquals(game.toFen(), copy.toFen());
+    }
+
+    @Test
+    public void boardPlacementPositive() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+
+        Assertions.assertEquals(START, board.toPlacement());
+        Assertions.assertEquals(board, ChessBoard.fromPlacement(START));
+        Assertions.assertEquals("8/8/8/8/8/8/8/8", new ChessBoard().toPlacement());
+    }
+
+    @Test
+    public void boardPlacementNegative() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessBoard.fromPlacement("8/8/8"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessBoard.fromPlacement("9/8/8/8/8/8/8/8"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessBoard.fromPlacement("x7/8/8/8/8/8/8/8"));
+        Assertions.assertThrows(JsonParseException.class,
+                () -> new Gson().fromJson("{\"board\":\"8/8\",\"turn\":\"WHITE\"}", ChessGame.class));
+        Assertions.assertThrows(JsonParseException.class,
+                () -> new Gson().fromJson("{\"turn\":\"WHITE\"}", ChessGame.class));
+    }
+
+    @Test
+    public void readsBitboardJson() {
+        // White king on e1, black king on e8, black to move
+        String json = "{\"board\":{\"pieces\":[16,0,0,0,0,0,1152921504606846976,0,0,0,0,0],"
+                + "\"colors\":[16,1152921504606846976],\"occupied\":1152921504606846992},"
+                + "\"turn\":\"BLACK\",\"gameOver\":false}";
+
+        ChessGame game = new Gson().fromJson(json, ChessGame.class);
+        Assertions.assertEquals("4k3/8/8/8/8/8/8/4K3", game.getBoard().toPlacement());
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+    }
+
+    @Test
+    public void readsPieceArrayJson() {
+        StringBuilder rows = new StringBuilder("[");
+        for (int row = 1; row <= 8; row++) {
+            rows.append(row > 1 ? ",[" : "[");
+            for (int col = 1; col <= 8; col++) {
+                rows.append(col > 1 ? "," : "");
+                if (row == 1 && col == 1) {
+                    rows.append("{\"color\":\"WHITE\",\"type\":\"ROOK\"}");
+                }
+                else if (row == 8 && col == 4) {
+                    rows.append("{\"color\":\"BLACK\",\"type\":\"QUEEN\"}");
+                }
+                else {
+                    rows.append("null");
+                }
+            }
+            rows.append("]");
+        }
+        rows.append("]");
+
+        ChessGame game = new Gson().fromJson("{\"board\":{\"board\":" + rows + "},\"turn\":\"WHITE\"}",
+                ChessGame.class);
+        Assertions.assertEquals("3q4/8/8/8/8/8/8/R7", game.getBoard().toPlacement());
+        Assertions.assertFalse(game.isGameOver());
+    }
+}
@@ -0,0 +1,95 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class FenTests {
+
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    @Test
+    public void startPosition() {
+        Assertions.assertEquals(START, new ChessGame().toFen());
+        Assertions.assertEquals(new ChessGame(), ChessGame.fromFen(START));
+    }
+
+    @Test
+    public void roundTripPositive() {
+        String[] records = {
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                "rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPP1PPP/RNBQKBNR w KQkq c6 0 2",
+                "4k3/8/8/8/8/8/8/4K2R b Kq - 17 63",
+        };
+        for (String fen : records) {
+            Assertions.assertEquals(fen, ChessGame.fromFen(fen).toFen());
+        }
+
+        ChessGame game = ChessGame.fromFen("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 3 40");
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        Assertions.assertEquals(3, game.getHalfmoveClock());
+        Assertions.assertEquals(40, game.getFullmoveNumber());
+        Assertions.assertEquals(new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING),
+                game.getBoard().getPiece(new ChessPosition(5, 1)));
+    }
+
+    @Test
+    public void roundTripNegative() {
+        String[] records = {
+                "",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkx - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e9 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - a 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPP/RNBQKBNR w KQkq - 0 1",
+        };
+        for (String fen : records) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(fen), fen);
+        }
+    }
+
+    @Test
+    public void keyCoversCastlingAndEnPassant() {
+        String board = "rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPP1PPP/RNBQKBNR w ";
+        long full = ChessGame.fromFen(board + "KQkq c6 0 2").getZobristKey();
+
+        Assertions.assertNotEquals(full, ChessGame.fromFen(board + "KQkq - 0 2").getZobristKey());
+        Assertions.assertNotEquals(full, ChessGame.fromFen(board + "Kkq c6 0 2").getZobristKey());
+        Assertions.assertEquals(full, ChessGame.fromFen(board + "KQkq c6 5 9").getZobristKey());
+    }
+
+    @Test
+    public void keyFollowsMadeMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+
+        Assertions.assertEquals(ChessGame.fromFen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1")
+                .getZobristKey(), game.getZobristKey());
+    }
+
+    @Test
+    public void fourFieldRecord() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 w - -");
+
+        Assertions.assertEquals("4k3/8/8/8/8/8/8/4K3 w - - 0 1", game.toFen());
+    }
+
+    @Test
+    public void movesUpdateState() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        Assertions.assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1", game.toFen());
+
+        game.makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+        Assertions.assertEquals("rnbqkb1r/pppppppp/5n2/8/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 1 2", game.toFen());
+
+        game.makeMove(new ChessMove(new ChessPosition(1, 5), new ChessPosition(2, 5), null));
+        Assertions.assertEquals("rnbqkb1r/pppppppp/5n2/8/4P3/8/PPPPKPPP/RNBQ1BNR b kq - 2 2", game.toFen());
+
+        game.makeMove(new ChessMove(new ChessPosition(6, 6), new ChessPosition(4, 5), null));
+        Assertions.assertEquals("rnbqkb1r/pppppppp/8/8/4n3/8/PPPPKPPP/RNBQ1BNR w kq - 0 3", game.toFen());
+    }
+}
@@ -0,0 +1,70 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class GameCodecTests {
+
+    @Test
+    public void startPosition() {
+        ChessGame game = new ChessGame();
+        ByteBuffer buffer = ByteBuffer.allocate(ChessGame.MAX_ENCODED_SIZE);
+
+        game.encode(buffer);
+        Assertions.assertEquals(29, buffer.position());
+        Assertions.assertArrayEquals(Arrays.copyOf(buffer.array(), 29), game.encode());
+
+        buffer.flip();
+        ChessGame copy = ChessGame.decode(buffer);
+        Assertions.assertEquals(game, copy);
+        Assertions.assertEquals(game.toFen(), copy.toFen());
+        Assertions.assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void roundTripPositive() {
+        String[] records = {
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 99 1000",
+                "rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPP1PPP/RNBQKBNR w Kq c6 0 2",
+                "8/8/8/8/8/8/8/8 w - - 0 1",
+        };
+        ByteBuffer buffer = ByteBuffer.allocate(4 * ChessGame.MAX_ENCODED_SIZE);
+        for (String fen : records) {
+            ChessGame game = ChessGame.fromFen(fen);
+            game.setGameOver(fen.startsWith("8/2p5"));
+            game.encode(buffer);
+        }
+
+        buffer.flip();
+        for (String fen : records) {
+            ChessGame copy = ChessGame.decode(buffer);
+            Assertions.assertEquals(fen, copy.toFen());
+            Assertions.assertEquals(fen.startsWith("8/2p5"), copy.isGameOver());
+        }
+    }
+
+    @Test
+    public void roundTripNegative() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ChessGame.decode(ByteBuffer.wrap(new byte[]{9, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0})));
+
+        ByteBuffer buffer = ByteBuffer.allocate(ChessGame.MAX_ENCODED_SIZE);
+        new ChessGame().encode(buffer);
+        buffer.flip();
+        buffer.limit(buffer.limit() - 3);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.decode(buffer));
+    }
+
+    @Test
+    public void truncatedNegative() {
+        byte[] encoded = new ChessGame().encode();
+        for (int length = 0; length < encoded.length; length++) {
+            ByteBuffer buffer = ByteBuffer.wrap(Arrays.copyOf(encoded, length));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.decode(buffer));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+public class GameStatusCacheTests {
+
+    @Test
+    public void statusFollowsMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(ChessGame.GameStatus.ONGOING, game.getGameStatus());
+
+        // Fool's mate
+        game.makeMove(new ChessMove(new ChessPosition(2, 6), new ChessPosition(3, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(2, 7), new ChessPosition(4, 7), null));
+        Assertions.assertEquals(ChessGame.GameStatus.ONGOING, game.getGameStatus());
+        game.makeMove(new ChessMove(new ChessPosition(8, 4), new ChessPosition(4, 8), null));
+
+        Assertions.assertEquals(ChessGame.GameStatus.CHECKMATE, game.getGameStatus());
+        Assertions.assertTrue(game.getGameStatus().isGameOver());
+        Assertions.assertTrue(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    public void statusResetsWithNewBoard() {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(ChessGame.GameStatus.ONGOING, game.getGameStatus());
+
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | | | | |k|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |K| | | | | | |r|
+                """));
+
+        Assertions.assertEquals(ChessGame.GameStatus.CHECK, game.getGameStatus());
+        Assertions.assertFalse(game.getGameStatus().isGameOver());
+    }
+
+    @Test
+    public void insufficientMaterialPositive() {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | | | | |k|
+                | | | | | | |b| |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | |B| | | | | | |
+                |K| | | | | | | |
+                """));
+
+        Assertions.assertEquals(ChessGame.GameStatus.DRAW_INSUFFICIENT_MATERIAL, game.getGameStatus());
+        Assertions.assertFalse(game.getGameStatus().isGameOver());
+    }
+
+    @Test
+    public void checkBeforeInsufficientMaterial() {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | | | | |k|
+                | | | | | | | | |
+                | | | | | |B| | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |K| | | | | | | |
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+
+        Assertions.assertEquals(ChessGame.GameStatus.CHECK, game.getGameStatus());
+    }
+
+    @Test
+    public void insufficientMaterialNegative() {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | | | | |k|
+                | | | | | | | |b|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | |B| | | | | | |
+                |K| | | | | | | |
+                """));
+
+        Assertions.assertEquals(ChessGame.GameStatus.ONGOING, game.getGameStatus());
+    }
+}
@@ -0,0 +1,83 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class MakeUnmakeTests {
+
+    @Test
+    public void captureRoundTrip() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/3p4/4P3/8/8/4K3 w - - 0 1");
+        String fen = game.toFen();
+        long key = game.getZobristKey();
+
+        ChessGame.MoveUndo undo = game.makeMoveUnchecked(
+                new ChessMove(new ChessPosition(4, 5), new ChessPosition(5, 4), null));
+
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        Assertions.assertEquals(ChessPiece.PieceType.PAWN, undo.captured().getPieceType());
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, game.getBoard().getPiece(new ChessPosition(5, 4)).getTeamColor());
+
+        game.unmakeMove(undo);
+
+        Assertions.assertEquals(fen, game.toFen());
+        Assertions.assertEquals(key, game.getZobristKey());
+    }
+
+    @Test
+    public void promotionCaptureRoundTrip() {
+        ChessGame game = ChessGame.fromFen("rn2k3/1P6/8/8/8/8/8/4K3 w - - 0 1");
+        String fen = game.toFen();
+        long key = game.getZobristKey();
+
+        ChessGame.MoveUndo undo = game.makeMoveUnchecked(
+                new ChessMove(new ChessPosition(7, 2), new ChessPosition(8, 1), ChessPiece.PieceType.QUEEN));
+
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        Assertions.assertEquals(ChessPiece.PieceType.QUEEN, game.getBoard().getPiece(new ChessPosition(8, 1)).getPieceType());
+        Assertions.assertNull(game.getBoard().getPiece(new ChessPosition(7, 2)));
+        Assertions.assertEquals(ChessPiece.PieceType.ROOK, undo.captured().getPieceType());
+
+        game.unmakeMove(undo);
+
+        Assertions.assertEquals(fen, game.toFen());
+        Assertions.assertEquals(key, game.getZobristKey());
+        Assertions.assertEquals(ChessPiece.PieceType.PAWN, game.getBoard().getPiece(new ChessPosition(7, 2)).getPieceType());
+    }
+
+    @Test
+    public void quietMoveRoundTrip() {
+        ChessGame game = new ChessGame();
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        ChessBoard before = game.getBoard().clone();
+
+        ChessGame.MoveUndo undo = game.makeMoveUnchecked(
+                new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+        Assertions.assertNull(undo.captured());
+
+        game.unmakeMove(undo);
+
+        Assertions.assertEquals(before, game.getBoard());
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+    }
+
+    @Test
+    public void replayMatchesMakeMove() throws InvalidMoveException {
+        ChessMove[] moves = {
+                new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null),
+                new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null),
+                new ChessMove(new ChessPosition(1, 5), new ChessPosition(2, 5), null),
+        };
+        ChessGame checked = new ChessGame();
+        ChessGame replayed = new ChessGame();
+        for (ChessMove move : moves) {
+            checked.makeMove(move);
+            replayed.replayMove(move);
+        }
+
+        Assertions.assertEquals(checked.toFen(), replayed.toFen());
+        Assertions.assertEquals(checked.getZobristKey(), replayed.getZobristKey());
+    }
+}
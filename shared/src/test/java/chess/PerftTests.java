@@ -0,0 +1,106 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.util.Map;
+
+/**
+ * Perft counts for well-known positions. This game doesn't play castling or
+ * en passant, so only positions and depths where neither move can occur are
+ * used, which keeps the published counts valid. The one exception is the
+ * depth 5 start position count, which is the published 4,865,609 minus its
+ * 258 en passant captures (all of them on the last move).
+ */
+public class PerftTests {
+
+    @Test
+    public void startPosition() {
+        ChessGame game = new ChessGame();
+
+        Assertions.assertEquals(20, game.perft(1));
+        Assertions.assertEquals(400, game.perft(2));
+        Assertions.assertEquals(8902, game.perft(3));
+        Assertions.assertEquals(197281, game.perft(4));
+    }
+
+    @Test
+    public void startPositionDepthFive() {
+        Assertions.assertEquals(4865351, new ChessGame().perft(5));
+    }
+
+    @Test
+    public void endgamePosition() {
+        // 8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - -
+        ChessGame game = gameWithBoard("""
+                | | | | | | | | |
+                | | |p| | | | | |
+                | | | |p| | | | |
+                |K|P| | | | | |r|
+                | |R| | | |p| |k|
+                | | | | | | | | |
+                | | | | |P| |P| |
+                | | | | | | | | |
+                """, ChessGame.TeamColor.WHITE);
+
+        Assertions.assertEquals(14, game.perft(1));
+        Assertions.assertEquals(191, game.perft(2));
+        Assertions.assertEquals(2812 - 2, game.perft(3));
+    }
+
+    @Test
+    public void middlegamePosition() {
+        // r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - -
+        ChessGame game = gameWithBoard("""
+                |r| | | | |r|k| |
+                | |p|p| |q|p|p|p|
+                |p| |n|p| |n| | |
+                | | |b| |p| |B| |
+                | | |B| |P| |b| |
+                |P| |N|P| |N| | |
+                | |P|P| |Q|P|P|P|
+                |R| | | | |R|K| |
+                """, ChessGame.TeamColor.WHITE);
+
+        Assertions.assertEquals(46, game.perft(1));
+        Assertions.assertEquals(2079, game.perft(2));
+        Assertions.assertEquals(89890, game.perft(3));
+    }
+
+    @Test
+    public void perftLeavesGameUnchanged() {
+        ChessGame game = new ChessGame();
+        ChessGame original = new ChessGame();
+
+        game.perft(3);
+
+        Assertions.assertEquals(original, game);
+        Assertions.assertEquals(original.getZobristKey(), game.getZobristKey());
+    }
+
+    @Test
+    public void divideSumsToPerft() {
+        ChessGame game = new ChessGame();
+        Map<ChessMove, Long> divide = game.divide(3);
+
+        Assertions.assertEquals(20, divide.size());
+        Assertions.assertEquals(game.perft(3), divide.values().stream().mapToLong(Long::longValue).sum());
+        Assertions.assertEquals(600, divide.get(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null)).longValue());
+    }
+
+    @Test
+    public void perftOfNoMovesIsEmpty() {
+        ChessGame game = new ChessGame();
+
+        Assertions.assertEquals(1, game.perft(0));
+        Assertions.assertTrue(game.divide(0).isEmpty());
+    }
+
+    private static ChessGame gameWithBoard(String boardText, ChessGame.TeamColor turn) {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard(boardText));
+        game.setTeamTurn(turn);
+        return game;
+    }
+}
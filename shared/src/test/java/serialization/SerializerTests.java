@@ -0,0 +1,77 @@
+package serialization;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import model.GameData;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import websocket.commands.MakeMoveCommand;
+import websocket.commands.UserGameCommand;
+import websocket.messages.ErrorMessage;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.NotificationMessage;
+import websocket.messages.ServerMessage;
+
+public class SerializerTests {
+
+    @Test
+    public void sharedInstance() {
+        Assertions.assertSame(Serializer.gson(), Serializer.gson());
+    }
+
+    @Test
+    public void roundTripPositive() {
+        GameData game = new GameData(7, "white", null, "game", new ChessGame());
+
+        String json = Serializer.toJson(new LoadGameMessage(game));
+        LoadGameMessage message = Serializer.fromJson(json, LoadGameMessage.class);
+
+        Assertions.assertEquals(game, message.getGame());
+    }
+
+    @Test
+    public void roundTripNegative() {
+        Assertions.assertNull(Serializer.fromJson("", GameData.class));
+        Assertions.assertThrows(RuntimeException.class, () -> Serializer.fromJson("{\"gameID\": [", GameData.class));
+    }
+
+    @Test
+    public void commandSubtypePositive() {
+        ChessMove move = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        String json = Serializer.toJson(new MakeMoveCommand("token", 3, move));
+
+        UserGameCommand command = Serializer.fromJson(json, UserGameCommand.class);
+
+        MakeMoveCommand makeMove = Assertions.assertInstanceOf(MakeMoveCommand.class, command);
+        Assertions.assertEquals(move, makeMove.getMove());
+        Assertions.assertEquals(3, makeMove.getGameID().intValue());
+
+        UserGameCommand connect = Serializer.fromJson(Serializer.toJson(
+                new UserGameCommand(UserGameCommand.CommandType.CONNECT, "token", 3)), UserGameCommand.class);
+        Assertions.assertEquals(UserGameCommand.class, connect.getClass());
+    }
+
+    @Test
+    public void commandSubtypeNegative() {
+        UserGameCommand command = Serializer.fromJson("{\"authToken\": \"token\", \"gameID\": 3}",
+                UserGameCommand.class);
+
+        Assertions.assertEquals(UserGameCommand.class, command.getClass());
+        Assertions.assertNull(command.getCommandType());
+        Assertions.assertThrows(RuntimeException.class, () -> Serializer.fromJson("[1, 2]", UserGameCommand.class));
+    }
+
+    @Test
+    public void serverMessageSubtypes() {
+        ServerMessage error = Serializer.fromJson(Serializer.toJson(new ErrorMessage("Error: bad")), ServerMessage.class);
+        ServerMessage notification = Serializer.fromJson(Serializer.toJson(new NotificationMessage("hi")),
+                ServerMessage.class);
+        ServerMessage load = Serializer.fromJson(Serializer.toJson(
+                new LoadGameMessage(new GameData(1, null, null, "game", new ChessGame()))), ServerMessage.class);
+
+        Assertions.assertInstanceOf(ErrorMessage.class, error);
+        Assertions.assertInstanceOf(NotificationMessage.class, notification);
+        Assertions.assertEquals(new ChessGame(), Assertions.assertInstanceOf(LoadGameMessage.class, load).getGame().game());
+    }
+}